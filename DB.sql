@@ -99,4 +99,133 @@ ALTER TABLE posts DROP COLUMN likes_count;
 
 DROP TABLE IF EXISTS hashes;
 TRUNCATE TABLE posts RESTART IDENTITY CASCADE;
-ALTER TABLE posts ADD COLUMN hash VARCHAR(8) NOT NULL UNIQUE;
\ No newline at end of file
+ALTER TABLE posts ADD COLUMN hash VARCHAR(8) NOT NULL UNIQUE;
+
+CREATE TABLE IF NOT EXISTS hash_keys (
+    hash VARCHAR(16) PRIMARY KEY
+);
+
+CREATE TABLE IF NOT EXISTS slug_counters (
+    base_slug VARCHAR(100) PRIMARY KEY,
+    last_suffix INTEGER NOT NULL
+);
+
+INSERT INTO slug_counters (base_slug, last_suffix)
+SELECT substring(slug from '^(.*)-[0-9]+$'), MAX(CAST(substring(slug from '-([0-9]+)$') AS INTEGER))
+FROM posts
+WHERE slug ~ '-[0-9]+$'
+GROUP BY 1
+ON CONFLICT (base_slug) DO UPDATE SET last_suffix = GREATEST(slug_counters.last_suffix, EXCLUDED.last_suffix);
+
+ALTER TABLE posts ADD COLUMN IF NOT EXISTS likes_count INTEGER NOT NULL DEFAULT 0;
+UPDATE posts p SET likes_count = (SELECT COUNT(*) FROM post_likes l WHERE l.post_id = p.id);
+
+ALTER TABLE posts ADD COLUMN IF NOT EXISTS unique_viewers_count INTEGER NOT NULL DEFAULT 0;
+UPDATE posts SET unique_viewers_count = views_count;
+
+ALTER TABLE posts ADD COLUMN IF NOT EXISTS grade_sum INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE posts ADD COLUMN IF NOT EXISTS grade_count INTEGER NOT NULL DEFAULT 0;
+UPDATE posts p SET grade_sum = r.grade_sum, grade_count = r.grade_count
+FROM (SELECT post_id, SUM(grade) AS grade_sum, COUNT(*) AS grade_count FROM reviews GROUP BY post_id) r
+WHERE p.id = r.post_id;
+
+CREATE TABLE IF NOT EXISTS post_rating_stats (
+    id INTEGER PRIMARY KEY,
+    max_likes INTEGER NOT NULL,
+    max_views INTEGER NOT NULL
+);
+
+INSERT INTO post_rating_stats (id, max_likes, max_views)
+SELECT 1, COALESCE(MAX(likes_count), 0), COALESCE(MAX(views_count), 0) FROM posts
+ON CONFLICT (id) DO NOTHING;
+
+CREATE INDEX IF NOT EXISTS idx_posts_expires_at_active ON posts (expires_at, id) WHERE is_deleted = false;
+
+CREATE INDEX IF NOT EXISTS idx_posts_deleted_at_purge ON posts (deleted_at, id) WHERE is_deleted = true;
+
+CREATE TABLE IF NOT EXISTS job_leases (
+    job_name VARCHAR(100) PRIMARY KEY,
+    owner VARCHAR(255) NOT NULL,
+    fencing_token BIGINT NOT NULL,
+    lease_until TIMESTAMP NOT NULL,
+    started_at TIMESTAMP NOT NULL,
+    finished_at TIMESTAMP,
+    last_duration_ms BIGINT,
+    last_status VARCHAR(20)
+);
+
+CREATE TABLE IF NOT EXISTS outbox_events (
+    id BIGSERIAL PRIMARY KEY,
+    topic VARCHAR(255) NOT NULL,
+    message_key VARCHAR(255),
+    type_id VARCHAR(255) NOT NULL,
+    payload TEXT NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS post_index_queue (
+    post_id INTEGER PRIMARY KEY,
+    enqueued_at TIMESTAMP NOT NULL
+);
+CREATE INDEX IF NOT EXISTS idx_post_index_queue_enqueued_at ON post_index_queue (enqueued_at);
+
+-- Change kinds pending per post, as PostIndexChange bits. Existing marks predate patches and rebuild the full document.
+ALTER TABLE post_index_queue ADD COLUMN IF NOT EXISTS changes INTEGER NOT NULL DEFAULT 1;
+
+-- Bulk delete/restore of a user's posts.
+CREATE INDEX IF NOT EXISTS idx_posts_user_id ON posts (user_id, is_deleted);
+
+-- Pooled sequence ids: Hibernate reserves blocks of 50 ids per nextval, so the sequences must step by 50.
+-- The SERIAL defaults stay in place for rows inserted outside Hibernate.
+ALTER SEQUENCE posts_id_seq INCREMENT BY 50;
+ALTER SEQUENCE post_likes_id_seq INCREMENT BY 50;
+ALTER SEQUENCE reviews_id_seq INCREMENT BY 50;
+ALTER SEQUENCE sent_notification_id_seq INCREMENT BY 50;
+
+-- Keyset pagination of user listings, newest first.
+CREATE INDEX IF NOT EXISTS idx_posts_user_created_active ON posts (user_id, created_at DESC, id DESC) WHERE is_deleted = false;
+CREATE INDEX IF NOT EXISTS idx_posts_user_created_deleted ON posts (user_id, created_at DESC, id DESC) WHERE is_deleted = true;
+CREATE INDEX IF NOT EXISTS idx_post_likes_user_created ON post_likes (user_id, created_at DESC, id DESC);
+-- Covered by the partial indexes above.
+DROP INDEX IF EXISTS idx_posts_user_id;
+
+-- Post bodies live in their own table so scans of posts never read them.
+CREATE TABLE IF NOT EXISTS post_contents (
+    post_id INTEGER PRIMARY KEY,
+    content TEXT NOT NULL,
+    CONSTRAINT fk_post_content FOREIGN KEY(post_id) REFERENCES posts(id) ON DELETE CASCADE
+);
+INSERT INTO post_contents (post_id, content)
+SELECT id, content FROM posts
+ON CONFLICT (post_id) DO NOTHING;
+ALTER TABLE posts DROP COLUMN IF EXISTS content;
+
+-- Large bodies are stored gzip-compressed; the bytes are already compressed, so TOAST should not try again.
+ALTER TABLE post_contents
+    ADD COLUMN IF NOT EXISTS encoding VARCHAR(16) NOT NULL DEFAULT 'identity',
+    ADD COLUMN IF NOT EXISTS compressed_content BYTEA,
+    ALTER COLUMN content DROP NOT NULL;
+ALTER TABLE post_contents ALTER COLUMN compressed_content SET STORAGE EXTERNAL;
+ALTER TABLE post_contents ADD CONSTRAINT chk_post_content_encoding
+    CHECK ((encoding = 'identity' AND content IS NOT NULL) OR (encoding = 'gzip' AND compressed_content IS NOT NULL));
+
+-- Lease times are compared with clock_timestamp(), like every other time column they carry a time zone.
+ALTER TABLE job_leases
+    ALTER COLUMN lease_until TYPE TIMESTAMP WITH TIME ZONE,
+    ALTER COLUMN started_at TYPE TIMESTAMP WITH TIME ZONE,
+    ALTER COLUMN finished_at TYPE TIMESTAMP WITH TIME ZONE;
+
+-- Keyed topics moved to new names with more partitions instead of being resized in place.
+UPDATE outbox_events SET topic = topic || '_v2'
+WHERE topic IN ('email_notification_topic', 'post_index_topic', 'post_purge_topic');
+
+-- Index marks are relayed one by one: failed sends are retried with backoff and dead-lettered after
+-- outbox.index.max-attempts. The version tells the relay whether a mark changed since it was read.
+ALTER TABLE post_index_queue
+    ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS attempts INTEGER NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS retry_at TIMESTAMP WITH TIME ZONE,
+    ADD COLUMN IF NOT EXISTS dead_lettered_at TIMESTAMP WITH TIME ZONE;
+
+-- Outbox ids are allocated one per nextval so that, per key, id order is commit order across nodes.
+ALTER SEQUENCE outbox_events_id_seq INCREMENT BY 1;
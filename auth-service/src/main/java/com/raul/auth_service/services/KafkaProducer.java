@@ -18,6 +18,6 @@ public class KafkaProducer {
 
     public void sendMessageToAuthNotificationTopic(EmailNotificationDto emailDto) {
         customLog.info(CUSTOM_LOG_MARKER, "sending emailDto to notification service");
-        notificationKafkaTemplate.send("email_notification_topic", emailDto);
+        notificationKafkaTemplate.send("email_notification_topic_v2", emailDto);
     }
 }
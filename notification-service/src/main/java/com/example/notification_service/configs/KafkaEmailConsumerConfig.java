@@ -0,0 +1,44 @@
+package com.example.notification_service.configs;
+
+import com.example.notification_service.dto.EmailNotificationDto;
+import com.raul.common.kafka.CompactJsonDeserializer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Configuration
+public class KafkaEmailConsumerConfig {
+
+    @Value("${spring.kafka.consumer.group-id}")
+    private String groupId;
+
+    @Bean
+    public ConsumerFactory<String, EmailNotificationDto> emailNotificationConsumerFactory() {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, "kafka:9092");
+        configProps.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
+        configProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        configProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, CompactJsonDeserializer.class);
+
+        configProps.put(JsonDeserializer.TYPE_MAPPINGS, "emailNotificationDto:com.example.notification_service.dto.EmailNotificationDto");
+        configProps.put(JsonDeserializer.TRUSTED_PACKAGES, "com.example.notification_service.dto");
+
+        return new DefaultKafkaConsumerFactory<>(configProps);
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, EmailNotificationDto> emailNotificationListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, EmailNotificationDto> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(emailNotificationConsumerFactory());
+        return factory;
+    }
+}
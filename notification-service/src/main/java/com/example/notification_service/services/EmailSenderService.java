@@ -39,7 +39,8 @@ public class EmailSenderService {
     @Value("${notification.mail.send.from}")
     private String from;
 
-    @KafkaListener(topics = "email_notification_topic", groupId = "${spring.kafka.consumer.group-id}")
+    @KafkaListener(topics = "email_notification_topic_v2", groupId = "${spring.kafka.consumer.group-id}",
+            containerFactory = "emailNotificationListenerContainerFactory")
     public void sendEmail(EmailNotificationDto emailNotificationDto) {
 
         customLog.info(CUSTOM_LOG_MARKER, "received email notification for user with ID: {}", emailNotificationDto.to());
@@ -2,9 +2,11 @@ package com.raul.paste_service.configs;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 
 @Configuration
 @EnableScheduling
@@ -15,4 +17,15 @@ public class AppConfig {
         mapper.registerModule(new JavaTimeModule());
         return mapper;
     }
+
+    /**
+     * Scheduler with room for the long-running cleanup jobs next to the frequent flush and expiry tasks.
+     */
+    @Bean
+    public ThreadPoolTaskScheduler taskScheduler(@Value("${task.scheduler.pool-size:4}") int poolSize) {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(poolSize);
+        scheduler.setThreadNamePrefix("scheduling-");
+        return scheduler;
+    }
 }
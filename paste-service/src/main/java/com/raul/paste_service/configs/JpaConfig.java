@@ -0,0 +1,48 @@
+package com.raul.paste_service.configs;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class JpaConfig {
+
+    @Value("${jpa.jdbc.batch-size:50}")
+    private int batchSize;
+
+    /**
+     * Enables JDBC batching so collection rows such as post_tags are written in one round trip.
+     * Inserts and updates are grouped by entity so mixed saves still batch; entities take their IDs
+     * from pooled sequences, which unlike IDENTITY columns does not force one insert per row.
+     * Explicit spring.jpa.properties settings take precedence.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer jdbcBatchingCustomizer() {
+        return properties -> {
+            properties.putIfAbsent(AvailableSettings.STATEMENT_BATCH_SIZE, batchSize);
+            properties.putIfAbsent(AvailableSettings.ORDER_INSERTS, true);
+            properties.putIfAbsent(AvailableSettings.ORDER_UPDATES, true);
+            properties.putIfAbsent(AvailableSettings.BATCH_VERSIONED_DATA, true);
+        };
+    }
+
+    /**
+     * Lets the PostgreSQL driver rewrite a batch of inserts into multi-row INSERT statements.
+     */
+    @Bean
+    public static BeanPostProcessor rewriteBatchedInsertsPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource dataSource) {
+                    dataSource.addDataSourceProperty("reWriteBatchedInserts", true);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,67 @@
+package com.raul.paste_service.configs;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.raul.paste_service.dto.post.PostCacheEntry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class PostCacheConfig {
+
+    private static final int ENTRY_OVERHEAD = 256;
+
+    @Value("${cache.posts.local.max-weight:50000000}")
+    private long localMaxWeight;
+
+    @Value("${cache.posts.local.max-aliases:200000}")
+    private long localMaxAliases;
+
+    @Value("${cache.posts.local.ttl-seconds:30}")
+    private long localTtlSeconds;
+
+    /**
+     * In-process (L1) post cache, bounded by the approximate size of the cached paste bodies.
+     */
+    @Bean
+    public Cache<Integer, PostCacheEntry> localPostCache(MeterRegistry meterRegistry) {
+        Cache<Integer, PostCacheEntry> cache = Caffeine.newBuilder()
+                .maximumWeight(localMaxWeight)
+                .weigher((Integer id, PostCacheEntry entry) -> weigh(entry))
+                .expireAfterWrite(Duration.ofSeconds(localTtlSeconds))
+                .recordStats()
+                .build();
+
+        return CaffeineCacheMetrics.monitor(meterRegistry, cache, "posts.l1");
+    }
+
+    /**
+     * In-process hash/slug to post ID aliases. Both identifiers are immutable, so entries never go stale.
+     */
+    @Bean
+    public Cache<String, Integer> localPostAliasCache(MeterRegistry meterRegistry) {
+        Cache<String, Integer> cache = Caffeine.newBuilder()
+                .maximumSize(localMaxAliases)
+                .recordStats()
+                .build();
+
+        return CaffeineCacheMetrics.monitor(meterRegistry, cache, "posts.l1.aliases");
+    }
+
+    private static int weigh(PostCacheEntry entry) {
+        long weight = ENTRY_OVERHEAD;
+        if (entry.response() != null) {
+            weight += length(entry.response().getContent()) + length(entry.response().getSummary());
+        }
+        return (int) Math.min(Integer.MAX_VALUE, weight);
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+}
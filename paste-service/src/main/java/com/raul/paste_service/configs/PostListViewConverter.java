@@ -0,0 +1,17 @@
+package com.raul.paste_service.configs;
+
+import com.raul.paste_service.dto.post.PostListView;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.stereotype.Component;
+
+/**
+ * Binds the view request parameter of post listings regardless of case; unknown views are rejected with 400.
+ */
+@Component
+public class PostListViewConverter implements Converter<String, PostListView> {
+
+    @Override
+    public PostListView convert(String source) {
+        return PostListView.from(source);
+    }
+}
@@ -3,14 +3,15 @@ package com.raul.paste_service.configs;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.raul.paste_service.dto.post.PostCacheEntry;
 import com.raul.paste_service.dto.post.PostResponseDto;
-import com.raul.paste_service.models.Post;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
@@ -34,11 +35,11 @@ public class RedisCacheConfig {
     }
 
     @Bean
-    public RedisTemplate<String, Post> redisTemplate(RedisConnectionFactory connectionFactory) {
-        RedisTemplate<String, Post> template = new RedisTemplate<>();
+    public RedisTemplate<String, PostCacheEntry> postCacheRedisTemplate(RedisConnectionFactory connectionFactory) {
+        RedisTemplate<String, PostCacheEntry> template = new RedisTemplate<>();
         template.setConnectionFactory(connectionFactory);
         template.setKeySerializer(new StringRedisSerializer());
-        template.setValueSerializer(jacksonSerializer());
+        template.setValueSerializer(new Jackson2JsonRedisSerializer<>(redisObjectMapper(), PostCacheEntry.class));
         return template;
     }
 
@@ -51,11 +52,21 @@ public class RedisCacheConfig {
         return template;
     }
 
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        return container;
+    }
+
     private Jackson2JsonRedisSerializer<PostResponseDto> jacksonSerializer() {
+        return new Jackson2JsonRedisSerializer<>(redisObjectMapper(), PostResponseDto.class);
+    }
+
+    private ObjectMapper redisObjectMapper() {
         ObjectMapper mapper = new ObjectMapper();
         mapper.registerModule(new JavaTimeModule());
         mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
-
-        return new Jackson2JsonRedisSerializer<>(mapper, PostResponseDto.class);
+        return mapper;
     }
 }
@@ -1,35 +1,39 @@
 package com.raul.paste_service.configs.kafka;
 
-import com.raul.paste_service.dto.notification.EmailNotificationDto;
+import lombok.RequiredArgsConstructor;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.core.ProducerFactory;
-import org.springframework.kafka.support.serializer.JsonSerializer;
 
 import java.util.HashMap;
 import java.util.Map;
 
+/**
+ * Producer for the outbox relay. Payloads are already encoded by {@link KafkaPayloadCodec}.
+ */
 @Configuration
-public class KafkaNotificationTopicConfig {
+@RequiredArgsConstructor
+public class KafkaOutboxRelayConfig {
+
+    private final KafkaProducerTuning kafkaProducerTuning;
 
     @Bean
-    public ProducerFactory<String, EmailNotificationDto> emailProducerFactory() {
+    public ProducerFactory<String, byte[]> outboxProducerFactory() {
         Map<String, Object> configProps = new HashMap<>();
         configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, "kafka:9092");
         configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
-
-        configProps.put(JsonSerializer.TYPE_MAPPINGS, "emailNotificationDto:com.raul.paste_service.dto.notification.EmailNotificationDto");
+        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
 
-        return new DefaultKafkaProducerFactory<>(configProps);
+        return new DefaultKafkaProducerFactory<>(kafkaProducerTuning.apply(configProps));
     }
 
     @Bean
-    public KafkaTemplate<String, EmailNotificationDto> emailKafkaTemplate() {
-        return new KafkaTemplate<>(emailProducerFactory());
+    public KafkaTemplate<String, byte[]> outboxKafkaTemplate() {
+        return new KafkaTemplate<>(outboxProducerFactory());
     }
 }
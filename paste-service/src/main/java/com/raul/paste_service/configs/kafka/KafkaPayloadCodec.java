@@ -0,0 +1,90 @@
+package com.raul.paste_service.configs.kafka;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.support.JacksonUtils;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Value codec for the Kafka payloads of paste-service: JSON or Jackson Smile, a binary encoding of the
+ * same data model. Both keep Jackson's evolution rules, so fields may be added or dropped as long as
+ * consumers ignore unknown ones. Smile payloads start with a fixed header, which lets consumers read
+ * either format; switch {@code kafka.payload.format} to smile only once every consumer can.
+ */
+@Component
+@RequiredArgsConstructor
+public class KafkaPayloadCodec {
+
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper jsonMapper = JacksonUtils.enhancedObjectMapper();
+    private final ObjectMapper smileMapper = SmileMapper.builder()
+            .disable(MapperFeature.DEFAULT_VIEW_INCLUSION)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .findAndAddModules()
+            .build();
+
+    @Value("${kafka.payload.format:json}")
+    private String format;
+
+    /**
+     * @return Mapper producing payloads in the configured format.
+     */
+    public ObjectMapper mapper() {
+        return isSmile() ? smileMapper : jsonMapper;
+    }
+
+    /**
+     * Encodes a payload in the configured format.
+     *
+     * @param topic   Topic the payload is sent to, for the size metric.
+     * @param payload Object to encode.
+     * @return Encoded payload.
+     */
+    public byte[] encode(String topic, Object payload) {
+        try {
+            return record(topic, mapper().writeValueAsBytes(payload));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize " + payload.getClass().getSimpleName(), e);
+        }
+    }
+
+    /**
+     * Re-encodes a stored JSON payload in the configured format.
+     *
+     * @param topic Topic the payload is sent to, for the size metric.
+     * @param json  JSON payload.
+     * @return Encoded payload.
+     */
+    public byte[] transcode(String topic, String json) {
+        if (!isSmile()) {
+            return record(topic, json.getBytes(StandardCharsets.UTF_8));
+        }
+
+        try {
+            return record(topic, smileMapper.writeValueAsBytes(jsonMapper.readTree(json)));
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to transcode payload for " + topic, e);
+        }
+    }
+
+    private byte[] record(String topic, byte[] payload) {
+        if (payload == null) {
+            return null;
+        }
+        meterRegistry.summary("kafka.producer.payload.bytes", "topic", topic, "format", format).record(payload.length);
+        return payload;
+    }
+
+    private boolean isSmile() {
+        return "smile".equalsIgnoreCase(format);
+    }
+}
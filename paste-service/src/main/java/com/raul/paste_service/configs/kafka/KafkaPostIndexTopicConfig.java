@@ -1,34 +0,0 @@
-package com.raul.paste_service.configs.kafka;
-
-import com.raul.paste_service.dto.post.PostIndexDto;
-import org.apache.kafka.clients.producer.ProducerConfig;
-import org.apache.kafka.common.serialization.StringSerializer;
-import org.springframework.context.annotation.Bean;
-import org.springframework.context.annotation.Configuration;
-import org.springframework.kafka.core.DefaultKafkaProducerFactory;
-import org.springframework.kafka.core.KafkaTemplate;
-import org.springframework.kafka.core.ProducerFactory;
-import org.springframework.kafka.support.serializer.JsonSerializer;
-
-import java.util.HashMap;
-import java.util.Map;
-
-@Configuration
-public class KafkaPostIndexTopicConfig {
-    @Bean
-    public ProducerFactory<String, PostIndexDto> postIndexProducerFactory() {
-        Map<String, Object> configProps = new HashMap<>();
-        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, "kafka:9092");
-        configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
-
-        configProps.put(JsonSerializer.TYPE_MAPPINGS, "postIndexDto:com.raul.paste_service.dto.post.PostIndexDto");
-
-        return new DefaultKafkaProducerFactory<>(configProps);
-    }
-
-    @Bean
-    public KafkaTemplate<String, PostIndexDto> postIndexKafkaTemplate() {
-        return new KafkaTemplate<>(postIndexProducerFactory());
-    }
-}
@@ -1,24 +1,60 @@
 package com.raul.paste_service.configs.kafka;
 
 import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.TopicBuilder;
 
+/**
+ * Topics of paste-service. Adding partitions to a live topic moves keys to other partitions,
+ * so messages of one post could be consumed out of order; KafkaAdmin would do exactly that
+ * if the partition count of an existing topic were raised. The count is therefore fixed per
+ * topic name, and a topic that needs more partitions gets a new versioned name instead.
+ * <p>
+ * Moving from the single-partition topics (email_notification_topic, post_index_topic,
+ * post_purge_topic) to the _v2 topics:
+ * <ol>
+ *     <li>Stop paste-service and auth-service. Pending events wait in the outbox.</li>
+ *     <li>Wait until the consumer groups of search-service and notification-service have no lag
+ *     on the old topics.</li>
+ *     <li>Apply DB.sql, which points pending outbox events at the _v2 topics.</li>
+ *     <li>Deploy the consumers, then the producers. Delete the old topics once they are idle.</li>
+ * </ol>
+ */
 @Configuration
 public class KafkaTopicsConfig {
 
+    @Value("${kafka.topics.partitions:6}")
+    private int partitions;
+
+    @Value("${kafka.topics.replicas:1}")
+    private int replicas;
+
     @Bean
     public NewTopic emailNotificationTopic() {
         return TopicBuilder
-                .name("email_notification_topic")
+                .name("email_notification_topic_v2")
+                .partitions(partitions)
+                .replicas(replicas)
                 .build();
     }
 
     @Bean
     public NewTopic postIndexTopic() {
         return TopicBuilder
-                .name("post_index_topic")
+                .name("post_index_topic_v2")
+                .partitions(partitions)
+                .replicas(replicas)
+                .build();
+    }
+
+    @Bean
+    public NewTopic postPurgeTopic() {
+        return TopicBuilder
+                .name("post_purge_topic_v2")
+                .partitions(partitions)
+                .replicas(replicas)
                 .build();
     }
 }
@@ -0,0 +1,37 @@
+package com.raul.paste_service.controllers;
+
+import com.raul.common.jobs.JobLeaseRepository;
+import com.raul.paste_service.dto.job.JobStatusDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Actuator endpoint (/actuator/jobs) listing which node last ran each scheduled job, and for how long.
+ * Covers every service sharing the job_leases table.
+ */
+@Component
+@Endpoint(id = "jobs")
+@RequiredArgsConstructor
+public class JobsEndpoint {
+
+    private final JobLeaseRepository jobLeaseRepository;
+
+    @ReadOperation
+    public List<JobStatusDto> jobs() {
+        return jobLeaseRepository.findAll().stream()
+                .map(lease -> new JobStatusDto(
+                        lease.jobName(),
+                        lease.owner(),
+                        lease.fencingToken(),
+                        lease.running(),
+                        lease.startedAt(),
+                        lease.finishedAt(),
+                        lease.lastDurationMs(),
+                        lease.lastStatus()))
+                .toList();
+    }
+}
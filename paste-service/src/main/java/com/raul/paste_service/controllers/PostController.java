@@ -1,11 +1,15 @@
 package com.raul.paste_service.controllers;
 
+import com.raul.paste_service.dto.post.PostListView;
 import com.raul.paste_service.dto.post.PostRequestDto;
 import com.raul.paste_service.dto.post.PostResponseDto;
+import com.raul.paste_service.dto.post.PostSummaryDto;
 import com.raul.paste_service.dto.post.RestorePostDto;
+import com.raul.paste_service.dto.post.RestoredPostsDto;
 import com.raul.paste_service.services.postServices.PostService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -60,6 +64,17 @@ public class PostController {
         return postService.getPostByHash(hash, request);
     }
 
+    @Operation(summary = "Get raw post by hash", description = "Retrieves the body of a post as plain text, gzip-encoded when stored compressed and accepted by the client.")
+    @ApiResponse(responseCode = "200", description = "Post found")
+    @ApiResponse(responseCode = "404", description = "Post not found")
+    @GetMapping("/{hash}/raw")
+    public ResponseEntity<byte[]> getRawPostByHash(
+            @Parameter(description = "Unique hash of the post") @PathVariable String hash,
+            @RequestHeader(name = "Accept-Encoding", required = false) String acceptEncoding,
+            HttpServletRequest request) {
+        return postService.getRawPostByHash(hash, acceptEncoding, request);
+    }
+
     @Operation(summary = "Get post by slug", description = "Retrieves a post using its slug.")
     @ApiResponse(responseCode = "200", description = "Post found",
             content = @Content(schema = @Schema(implementation = PostResponseDto.class)))
@@ -91,35 +106,55 @@ public class PostController {
     }
 
     @Operation(summary = "Restore all posts by user ID", description = "Restores all posts of a specific user.")
-    @ApiResponse(responseCode = "200", description = "Posts restored successfully",
-            content = @Content(schema = @Schema(implementation = PostResponseDto.class)))
-    @ApiResponse(responseCode = "404", description = "No deleted posts found for the user")
+    @ApiResponse(responseCode = "200", description = "Number of posts restored",
+            content = @Content(schema = @Schema(implementation = RestoredPostsDto.class)))
+    @ApiResponse(responseCode = "404", description = "No posts found for the user")
     @PutMapping("/user/{pathUserId}/restore")
-    public ResponseEntity<List<PostResponseDto>> restoreAllByUserId(
+    public ResponseEntity<RestoredPostsDto> restoreAllByUserId(
             @Parameter(description = "ID of the user") @PathVariable Integer pathUserId,
             @RequestHeader("X-User-Id") String headerUserId) {
         return  postService.restoreAllByUserId(pathUserId, headerUserId);
     }
 
-    @Operation(summary = "Get posts by user ID", description = "Retrieves a posts using its user ID.")
-    @ApiResponse(responseCode = "200", description = "Posts found",
-            content = @Content(schema = @Schema(implementation = PostResponseDto.class)))
+    @Operation(summary = "Get posts by user ID", description = "Retrieves one page of posts using its user ID, newest first.")
+    @ApiResponse(responseCode = "200", description = "Posts found: PostResponseDto items, or PostSummaryDto items for the summary view",
+            content = @Content(array = @ArraySchema(schema = @Schema(oneOf = {PostResponseDto.class, PostSummaryDto.class}))))
+    @ApiResponse(responseCode = "400", description = "Invalid cursor or view")
     @ApiResponse(responseCode = "404", description = "Posts not found")
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<PostResponseDto>> getPostsByUser(
-            @Parameter(description = "ID of the user") @PathVariable Integer userId) {
-        return postService.getPostsByUserId(userId);
+    public ResponseEntity<List<?>> getPostsByUser(
+            @Parameter(description = "ID of the user") @PathVariable Integer userId,
+            @Parameter(description = "Continuation token from the X-Next-Cursor header of the previous page")
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @Parameter(description = "Page size, capped by the server")
+            @RequestParam(name = "size", required = false) Integer size,
+            @Parameter(description = "Whether to return the total count in the X-Total-Count header")
+            @RequestParam(name = "includeTotal", defaultValue = "false") boolean includeTotal,
+            @Parameter(description = "full for PostResponseDto items, summary for PostSummaryDto items without the content",
+                    schema = @Schema(allowableValues = {"full", "summary"}, defaultValue = "full"))
+            @RequestParam(name = "view", defaultValue = "full") PostListView view) {
+        return postService.getPostsByUserId(userId, cursor, size, includeTotal, view);
     }
 
-    @Operation(summary = "Get deleted posts by user ID", description = "Retrieves a deleted posts using its user ID.")
-    @ApiResponse(responseCode = "200", description = "Posts found",
-            content = @Content(schema = @Schema(implementation = PostResponseDto.class)))
+    @Operation(summary = "Get deleted posts by user ID", description = "Retrieves one page of deleted posts using its user ID, newest first.")
+    @ApiResponse(responseCode = "200", description = "Posts found: PostResponseDto items, or PostSummaryDto items for the summary view",
+            content = @Content(array = @ArraySchema(schema = @Schema(oneOf = {PostResponseDto.class, PostSummaryDto.class}))))
+    @ApiResponse(responseCode = "400", description = "Invalid cursor or view")
     @ApiResponse(responseCode = "404", description = "Posts not found")
     @GetMapping("/user/{pathUserId}/garbage")
-    public ResponseEntity<List<PostResponseDto>> getDeletedPostsByUser(
+    public ResponseEntity<List<?>> getDeletedPostsByUser(
             @Parameter(description = "ID of the user") @PathVariable Integer pathUserId,
-            @RequestHeader("X-User-Id") String headerUserId) {
-        return postService.getDeletedPostsByUserId(pathUserId, headerUserId);
+            @RequestHeader("X-User-Id") String headerUserId,
+            @Parameter(description = "Continuation token from the X-Next-Cursor header of the previous page")
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @Parameter(description = "Page size, capped by the server")
+            @RequestParam(name = "size", required = false) Integer size,
+            @Parameter(description = "Whether to return the total count in the X-Total-Count header")
+            @RequestParam(name = "includeTotal", defaultValue = "false") boolean includeTotal,
+            @Parameter(description = "full for PostResponseDto items, summary for PostSummaryDto items without the content",
+                    schema = @Schema(allowableValues = {"full", "summary"}, defaultValue = "full"))
+            @RequestParam(name = "view", defaultValue = "full") PostListView view) {
+        return postService.getDeletedPostsByUserId(pathUserId, headerUserId, cursor, size, includeTotal, view);
     }
 
     @Operation(summary = "Restore post by Post ID", description = "Restoer a detelet post by ID of the post.")
@@ -1,9 +1,12 @@
 package com.raul.paste_service.controllers;
 
+import com.raul.paste_service.dto.post.PostListView;
 import com.raul.paste_service.dto.post.PostResponseDto;
+import com.raul.paste_service.dto.post.PostSummaryDto;
 import com.raul.paste_service.services.postServices.PostLikeService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -41,14 +44,24 @@ public class PostLikeController {
         return postLikeService.unlikePost(postId, userId);
     }
 
-    @Operation(summary = "Get liked posts by user", description = "Retrieves all posts liked by the specified user.")
-    @ApiResponse(responseCode = "200", description = "Posts found",
-            content = @Content(schema = @Schema(implementation = PostResponseDto.class)))
+    @Operation(summary = "Get liked posts by user", description = "Retrieves one page of posts liked by the specified user, most recently liked first.")
+    @ApiResponse(responseCode = "200", description = "Posts found: PostResponseDto items, or PostSummaryDto items for the summary view",
+            content = @Content(array = @ArraySchema(schema = @Schema(oneOf = {PostResponseDto.class, PostSummaryDto.class}))))
+    @ApiResponse(responseCode = "400", description = "Invalid cursor or view")
     @ApiResponse(responseCode = "404", description = "Posts not found")
     @GetMapping("/user/{pathUserId}")
-    public ResponseEntity<List<PostResponseDto>> getLikedPostsByUser(
+    public ResponseEntity<List<?>> getLikedPostsByUser(
             @Parameter(description = "ID of the user") @PathVariable Integer pathUserId,
-            @RequestHeader("X-User-Id") String headerUserId) {
-        return postLikeService.getLikedPostsByUser(pathUserId, headerUserId);
+            @RequestHeader("X-User-Id") String headerUserId,
+            @Parameter(description = "Continuation token from the X-Next-Cursor header of the previous page")
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @Parameter(description = "Page size, capped by the server")
+            @RequestParam(name = "size", required = false) Integer size,
+            @Parameter(description = "Whether to return the total count in the X-Total-Count header")
+            @RequestParam(name = "includeTotal", defaultValue = "false") boolean includeTotal,
+            @Parameter(description = "full for PostResponseDto items, summary for PostSummaryDto items without the content",
+                    schema = @Schema(allowableValues = {"full", "summary"}, defaultValue = "full"))
+            @RequestParam(name = "view", defaultValue = "full") PostListView view) {
+        return postLikeService.getLikedPostsByUser(pathUserId, headerUserId, cursor, size, includeTotal, view);
     }
 }
@@ -0,0 +1,22 @@
+package com.raul.paste_service.dto.job;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.time.LocalDateTime;
+
+public record JobStatusDto(
+        String jobName,
+        String owner,
+        Long fencingToken,
+        Boolean running,
+
+        @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+        LocalDateTime startedAt,
+
+        @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+        LocalDateTime finishedAt,
+
+        Long lastDurationMs,
+        String lastStatus
+) {
+}
@@ -0,0 +1,14 @@
+package com.raul.paste_service.dto.post;
+
+/**
+ * Pending index mark: a post, the bits of the {@link PostIndexChange}s it accumulated, and the
+ * version of the mark, which changes every time the post is marked again.
+ */
+public interface PendingPostIndexView {
+
+    Integer getPostId();
+
+    Integer getChanges();
+
+    Long getVersion();
+}
@@ -0,0 +1,18 @@
+package com.raul.paste_service.dto.post;
+
+import java.time.LocalDateTime;
+
+/**
+ * Cached post. Bodies longer than cache.posts.max-content-chars are left out of the response
+ * (contentOmitted) and read from post_contents when the entry is served.
+ */
+public record PostCacheEntry(
+        Integer id,
+        String hash,
+        String slug,
+        Integer userId,
+        LocalDateTime expiresAt,
+        PostResponseDto response,
+        boolean contentOmitted
+) {
+}
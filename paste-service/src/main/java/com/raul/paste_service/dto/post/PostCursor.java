@@ -0,0 +1,46 @@
+package com.raul.paste_service.dto.post;
+
+import jakarta.ws.rs.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Continuation token of a keyset-paginated listing: the (createdAt, id) of the last row returned.
+ * Clients treat it as opaque.
+ */
+public record PostCursor(LocalDateTime createdAt, Integer id) {
+
+    /**
+     * Position before the first row, so the first page uses the same query as the following ones.
+     */
+    public static final PostCursor START = new PostCursor(LocalDateTime.of(9999, 12, 31, 0, 0), Integer.MAX_VALUE);
+
+    public static PostCursor of(PostKeysetView row) {
+        return new PostCursor(row.getCreatedAt(), row.getCursorId());
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((createdAt + "|" + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param token Token returned with the previous page, or null for the first page.
+     * @return Decoded position.
+     */
+    public static PostCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return START;
+        }
+
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split("\\|");
+            return new PostCursor(LocalDateTime.parse(parts[0]), Integer.valueOf(parts[1]));
+        } catch (IllegalArgumentException | DateTimeParseException | ArrayIndexOutOfBoundsException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.raul.paste_service.dto.post;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projection with the post deadline tracked by the expiry scheduler.
+ */
+public interface PostExpiryView {
+
+    Integer getId();
+
+    LocalDateTime getExpiresAt();
+}
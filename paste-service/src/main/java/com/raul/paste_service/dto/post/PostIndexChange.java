@@ -0,0 +1,50 @@
+package com.raul.paste_service.dto.post;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Kinds of post changes the search index needs to learn about. Every kind but FULL
+ * is sent as a partial update carrying only its own fields.
+ */
+public enum PostIndexChange {
+    FULL(1),
+    STATUS(2),
+    COUNTERS(4),
+    RATING(8);
+
+    private final int bit;
+
+    PostIndexChange(int bit) {
+        this.bit = bit;
+    }
+
+    public int bit() {
+        return bit;
+    }
+
+    /**
+     * Packs changes into the bit set stored in the index queue. No changes means a full rebuild.
+     */
+    public static int toBits(PostIndexChange... changes) {
+        if (changes.length == 0) {
+            return FULL.bit;
+        }
+
+        int bits = 0;
+        for (PostIndexChange change : changes) {
+            bits |= change.bit;
+        }
+        return bits;
+    }
+
+    public static Set<PostIndexChange> fromBits(int bits) {
+        Set<PostIndexChange> changes = EnumSet.noneOf(PostIndexChange.class);
+        for (PostIndexChange change : values()) {
+            if ((bits & change.bit) != 0) {
+                changes.add(change);
+            }
+        }
+        return changes;
+    }
+}
@@ -3,7 +3,11 @@ package com.raul.paste_service.dto.post;
 import java.time.LocalDateTime;
 import java.util.List;
 
+/**
+ * Full document upsert of an indexed post.
+ */
 public record PostIndexDto(
+        Integer schemaVersion,
         Integer id,
         String title,
         String slug,
@@ -20,4 +24,9 @@ public record PostIndexDto(
         LocalDateTime expiresAt,
         Boolean isDeleted
 ) {
+    /**
+     * Version of the post index event schema: 1 had only full documents, 2 adds {@link PostIndexPatchDto}.
+     * Consumers ignore unknown fields, so fields may be added without a version bump.
+     */
+    public static final int SCHEMA_VERSION = 2;
 }
@@ -0,0 +1,22 @@
+package com.raul.paste_service.dto.post;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * Partial update of an indexed post. Only the fields of the listed changes are meaningful:
+ * STATUS carries isDeleted, expiresAt and updatedAt, COUNTERS carries likesCount and viewsCount,
+ * RATING carries rating.
+ */
+public record PostIndexPatchDto(
+        Integer schemaVersion,
+        Integer id,
+        Set<PostIndexChange> changes,
+        Boolean isDeleted,
+        LocalDateTime expiresAt,
+        LocalDateTime updatedAt,
+        Integer likesCount,
+        Integer viewsCount,
+        Integer rating
+) {
+}
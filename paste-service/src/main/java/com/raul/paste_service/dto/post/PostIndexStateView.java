@@ -0,0 +1,23 @@
+package com.raul.paste_service.dto.post;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projection with the post fields that partial index updates carry, without the content.
+ */
+public interface PostIndexStateView {
+
+    Integer getId();
+
+    Boolean getIsDeleted();
+
+    LocalDateTime getExpiresAt();
+
+    LocalDateTime getUpdatedAt();
+
+    Integer getLikesCount();
+
+    Integer getViewsCount();
+
+    Integer getRating();
+}
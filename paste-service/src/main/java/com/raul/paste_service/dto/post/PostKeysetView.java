@@ -0,0 +1,16 @@
+package com.raul.paste_service.dto.post;
+
+import java.time.LocalDateTime;
+
+/**
+ * Position of a post in a keyset-paginated listing, ordered by (createdAt, cursorId) descending.
+ * For own posts the cursor ID is the post ID, for liked posts it is the like ID.
+ */
+public interface PostKeysetView {
+
+    Integer getPostId();
+
+    LocalDateTime getCreatedAt();
+
+    Integer getCursorId();
+}
@@ -0,0 +1,21 @@
+package com.raul.paste_service.dto.post;
+
+import java.util.Locale;
+
+/**
+ * Shape of the items of a post listing: FULL items are {@link PostResponseDto}, SUMMARY items are
+ * {@link PostSummaryDto}, which leave out the content.
+ */
+public enum PostListView {
+    FULL,
+    SUMMARY;
+
+    /**
+     * @param value View name as sent by clients, in any case.
+     * @return Matching view.
+     * @throws IllegalArgumentException If no view has that name.
+     */
+    public static PostListView from(String value) {
+        return valueOf(value.trim().toUpperCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,13 @@
+package com.raul.paste_service.dto.post;
+
+/**
+ * Projection with just the post fields needed to notify its author.
+ */
+public interface PostNotificationView {
+
+    Integer getId();
+
+    String getTitle();
+
+    Integer getUserId();
+}
@@ -0,0 +1,8 @@
+package com.raul.paste_service.dto.post;
+
+import java.util.List;
+
+public record PostPurgeDto(
+        List<Integer> postIds
+) {
+}
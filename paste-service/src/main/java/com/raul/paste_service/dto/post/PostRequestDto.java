@@ -15,7 +15,7 @@ public record PostRequestDto(
         String slug,
 
         @NotBlank(message = "Content should not be empty")
-        @Size(max = 5000, message = "Content should be smaller than 5000 characters")
+        @Size(max = 50000, message = "Content should be smaller than 50000 characters")
         String content,
 
         @NotBlank(message = "Summary should not be empty")
@@ -11,7 +11,7 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @AllArgsConstructor
 @NoArgsConstructor
 public class PostResponseDto {
@@ -24,6 +24,7 @@ public class PostResponseDto {
         private Integer rating;
         private Integer likesCount;
         private Integer viewsCount;
+        private Integer uniqueViewersCount;
 
         @JsonFormat(pattern = "dd-MM-yyyy HH:mm")
         private LocalDateTime expirationDate;
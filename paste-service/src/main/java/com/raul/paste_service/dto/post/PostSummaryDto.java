@@ -1,30 +1,34 @@
-package com.example.user_service.dto;
+package com.raul.paste_service.dto.post;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.raul.paste_service.dto.tag.TagResponseDto;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
+/**
+ * Post as shown in listings: every field of {@link PostResponseDto} except the content.
+ */
 @Data
 @Builder
 @AllArgsConstructor
-public class PostResponseDto {
+@NoArgsConstructor
+public class PostSummaryDto {
         private String title;
         private String slug;
-        private String content;
         private String summary;
         private List<TagResponseDto> tags;
         private Integer userId;
         private Integer rating;
         private Integer likesCount;
         private Integer viewsCount;
+        private Integer uniqueViewersCount;
 
-        @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+        @JsonFormat(pattern = "dd-MM-yyyy HH:mm")
         private LocalDateTime expirationDate;
         private String hash;
 }
-
-
@@ -0,0 +1,31 @@
+package com.raul.paste_service.dto.post;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projection with the listing fields of a post, without its content.
+ */
+public interface PostSummaryView {
+
+    Integer getId();
+
+    String getTitle();
+
+    String getSlug();
+
+    String getSummary();
+
+    Integer getUserId();
+
+    Integer getRating();
+
+    Integer getLikesCount();
+
+    Integer getViewsCount();
+
+    Integer getUniqueViewersCount();
+
+    LocalDateTime getExpiresAt();
+
+    String getHash();
+}
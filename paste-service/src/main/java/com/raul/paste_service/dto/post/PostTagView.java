@@ -0,0 +1,11 @@
+package com.raul.paste_service.dto.post;
+
+/**
+ * Projection pairing a post with the name of one of its tags.
+ */
+public interface PostTagView {
+
+    Integer getPostId();
+
+    String getName();
+}
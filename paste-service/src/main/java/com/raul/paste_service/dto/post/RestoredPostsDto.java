@@ -0,0 +1,11 @@
+package com.raul.paste_service.dto.post;
+
+/**
+ * Result of restoring all posts of a user.
+ *
+ * @param restoredCount Number of posts restored.
+ */
+public record RestoredPostsDto(
+        Integer restoredCount
+) {
+}
@@ -0,0 +1,23 @@
+package com.raul.paste_service.models;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "hash_keys")
+public class HashKey {
+
+    @Id
+    @Column(name = "hash", length = 16)
+    private String hash;
+}
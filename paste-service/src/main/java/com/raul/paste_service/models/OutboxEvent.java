@@ -0,0 +1,48 @@
+package com.raul.paste_service.models;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "outbox_events")
+public class OutboxEvent {
+
+    /**
+     * Taken from the sequence one at a time, after the writer holds its key lock: pooled blocks would
+     * hand out IDs cached per node, and the relay relies on ID order being commit order per key.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_events_id_seq")
+    @SequenceGenerator(name = "outbox_events_id_seq", sequenceName = "outbox_events_id_seq", allocationSize = 1)
+    private Long id;
+
+    @Column(nullable = false, name = "topic")
+    private String topic;
+
+    @Column(name = "message_key")
+    private String messageKey;
+
+    @Column(nullable = false, name = "type_id")
+    private String typeId;
+
+    @Column(nullable = false, name = "payload", columnDefinition = "TEXT")
+    private String payload;
+
+    @Column(nullable = false, name = "created_at")
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,43 @@
+package com.raul.paste_service.models;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "post_index_queue")
+public class PendingPostIndex {
+
+    @Id
+    @Column(name = "post_id")
+    private Integer postId;
+
+    @Column(nullable = false, name = "enqueued_at")
+    private LocalDateTime enqueuedAt;
+
+    @Column(nullable = false, name = "changes")
+    private Integer changes;
+
+    @Column(nullable = false, name = "version")
+    private Long version;
+
+    @Column(nullable = false, name = "attempts")
+    private Integer attempts;
+
+    @Column(name = "retry_at")
+    private LocalDateTime retryAt;
+
+    @Column(name = "dead_lettered_at")
+    private LocalDateTime deadLetteredAt;
+}
@@ -25,7 +25,8 @@ import java.util.Set;
 public class Post {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "posts_id_seq")
+    @SequenceGenerator(name = "posts_id_seq", sequenceName = "posts_id_seq", allocationSize = 50)
     private Integer id;
 
     @Column(nullable = false, name = "title", length = 50)
@@ -34,13 +35,10 @@ public class Post {
     @Column(nullable = false, name = "slug", unique = true)
     private String slug;
 
-    @Column(nullable = false, name = "content", columnDefinition = "TEXT")
-    private String content;
-
     @Column(nullable = false, name = "summary", columnDefinition = "TEXT")
     private String summary;
 
-    @ManyToMany(fetch = FetchType.LAZY, cascade = {CascadeType.PERSIST, CascadeType.MERGE})
+    @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(
             name = "post_tags",
             joinColumns = @JoinColumn(name = "post_id"),
@@ -61,9 +59,21 @@ public class Post {
     @JsonIgnore
     private List<PostLike> likes;
 
+    @Column(nullable = false, name = "grade_sum", columnDefinition = "int default 0")
+    private Integer gradeSum;
+
+    @Column(nullable = false, name = "grade_count", columnDefinition = "int default 0")
+    private Integer gradeCount;
+
+    @Column(nullable = false, name = "likes_count", columnDefinition = "int default 0")
+    private Integer likesCount;
+
     @Column(nullable = false, name = "views_count",columnDefinition = "int default 0")
     private Integer viewsCount;
 
+    @Column(nullable = false, name = "unique_viewers_count", columnDefinition = "int default 0")
+    private Integer uniqueViewersCount;
+
     @CreatedDate
     @Column(nullable = false, name = "created_at", updatable = false)
     private LocalDateTime createdAt;
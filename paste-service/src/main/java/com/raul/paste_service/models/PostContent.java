@@ -0,0 +1,38 @@
+package com.raul.paste_service.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Body of a post, kept apart from the posts row so metadata queries never read it.
+ * Large bodies are stored gzip-compressed in compressedContent, with content left null.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "post_contents")
+public class PostContent {
+
+    @Id
+    @Column(name = "post_id")
+    private Integer postId;
+
+    @MapsId
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "post_id")
+    private Post post;
+
+    @Column(name = "content", columnDefinition = "TEXT")
+    private String content;
+
+    @Column(nullable = false, name = "encoding", length = 16)
+    private String encoding;
+
+    @Column(name = "compressed_content")
+    private byte[] compressedContent;
+}
@@ -21,7 +21,8 @@ import java.time.LocalDateTime;
 public class PostLike {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "post_likes_id_seq")
+    @SequenceGenerator(name = "post_likes_id_seq", sequenceName = "post_likes_id_seq", allocationSize = 50)
     private Integer id;
 
     @ManyToOne
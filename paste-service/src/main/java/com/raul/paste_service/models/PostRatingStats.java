@@ -0,0 +1,28 @@
+package com.raul.paste_service.models;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "post_rating_stats")
+public class PostRatingStats {
+
+    @Id
+    private Integer id;
+
+    @Column(nullable = false, name = "max_likes")
+    private Integer maxLikes;
+
+    @Column(nullable = false, name = "max_views")
+    private Integer maxViews;
+}
@@ -18,7 +18,8 @@ import java.time.LocalDateTime;
 public class SentPostNotification {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sent_notification_id_seq")
+    @SequenceGenerator(name = "sent_notification_id_seq", sequenceName = "sent_notification_id_seq", allocationSize = 50)
     private Integer id;
 
     @Column(nullable = false, name = "post_id")
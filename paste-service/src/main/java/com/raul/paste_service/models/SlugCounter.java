@@ -0,0 +1,26 @@
+package com.raul.paste_service.models;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "slug_counters")
+public class SlugCounter {
+
+    @Id
+    @Column(name = "base_slug", length = 100)
+    private String baseSlug;
+
+    @Column(nullable = false, name = "last_suffix")
+    private Integer lastSuffix;
+}
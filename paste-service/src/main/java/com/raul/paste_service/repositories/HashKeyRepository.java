@@ -0,0 +1,33 @@
+package com.raul.paste_service.repositories;
+
+import com.raul.paste_service.models.HashKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Repository
+public interface HashKeyRepository extends JpaRepository<HashKey, String> {
+
+    @Transactional
+    @Modifying
+    @Query(value =
+            "INSERT INTO hash_keys (hash) " +
+            "SELECT h FROM unnest(ARRAY[:hashes]) AS h " +
+            "WHERE NOT EXISTS (SELECT 1 FROM posts p WHERE p.hash = h) " +
+            "ON CONFLICT DO NOTHING",
+            nativeQuery = true)
+    int insertAll(@Param("hashes") List<String> hashes);
+
+    @Transactional
+    @Query(value =
+            "DELETE FROM hash_keys WHERE hash IN (" +
+            "SELECT k.hash FROM hash_keys k LIMIT :size FOR UPDATE SKIP LOCKED) " +
+            "RETURNING hash",
+            nativeQuery = true)
+    List<String> claimBatch(@Param("size") int size);
+}
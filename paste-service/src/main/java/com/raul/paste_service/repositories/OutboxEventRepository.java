@@ -0,0 +1,28 @@
+package com.raul.paste_service.repositories;
+
+import com.raul.paste_service.models.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Locks a message key until the current transaction ends. A writer of the next event with
+     * that key waits for this one to commit, so it draws a higher ID and commits later.
+     */
+    @Query(value = "SELECT 1 FROM pg_advisory_xact_lock(:namespace, hashtext(:lockKey))", nativeQuery = true)
+    int lockKey(@Param("namespace") int namespace, @Param("lockKey") String lockKey);
+
+    @Query(value = "SELECT * FROM outbox_events ORDER BY id LIMIT :size", nativeQuery = true)
+    List<OutboxEvent> findNextBatch(@Param("size") int size);
+
+    @Query(value = "SELECT created_at FROM outbox_events ORDER BY id LIMIT 1", nativeQuery = true)
+    Optional<LocalDateTime> findOldestCreatedAt();
+}
@@ -0,0 +1,83 @@
+package com.raul.paste_service.repositories;
+
+import com.raul.paste_service.dto.post.PendingPostIndexView;
+import com.raul.paste_service.models.PendingPostIndex;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Repository
+public interface PendingPostIndexRepository extends JpaRepository<PendingPostIndex, Integer> {
+
+    /**
+     * Merges a new mark into a pending one, for statements inserting into post_index_queue.
+     */
+    String MERGE_MARK =
+            "ON CONFLICT (post_id) DO UPDATE SET enqueued_at = EXCLUDED.enqueued_at, " +
+            "changes = post_index_queue.changes | EXCLUDED.changes, " +
+            "version = post_index_queue.version + 1, attempts = 0, retry_at = NULL, dead_lettered_at = NULL";
+
+    /**
+     * Marks posts for re-indexing; a post marked several times before the relay runs is indexed once,
+     * with the union of the changes. Every mark bumps the version and clears earlier failures, so the
+     * relay never removes a mark that changed after it was read. The IDs are bound as one array.
+     */
+    @Transactional
+    @Modifying
+    @Query(value =
+            "INSERT INTO post_index_queue (post_id, enqueued_at, changes) " +
+            "SELECT id, clock_timestamp(), :changes FROM unnest(CAST(:postIds AS integer[])) AS id " +
+            MERGE_MARK,
+            nativeQuery = true)
+    void enqueueAll(@Param("postIds") Integer[] postIds, @Param("changes") int changes);
+
+    /**
+     * @return Oldest marks that are neither dead-lettered nor waiting for a retry.
+     */
+    @Query(value =
+            "SELECT post_id AS \"postId\", changes AS \"changes\", version AS \"version\" FROM post_index_queue " +
+            "WHERE dead_lettered_at IS NULL AND (retry_at IS NULL OR retry_at <= clock_timestamp()) " +
+            "ORDER BY enqueued_at LIMIT :size",
+            nativeQuery = true)
+    List<PendingPostIndexView> findNextBatch(@Param("size") int size);
+
+    /**
+     * Removes the marks of indexed posts, unless they were marked again since they were read.
+     */
+    @Transactional
+    @Modifying
+    @Query(value =
+            "DELETE FROM post_index_queue q " +
+            "USING unnest(CAST(:postIds AS integer[]), CAST(:versions AS bigint[])) AS r(post_id, version) " +
+            "WHERE q.post_id = r.post_id AND q.version = r.version",
+            nativeQuery = true)
+    int deleteRelayed(@Param("postIds") Integer[] postIds, @Param("versions") Long[] versions);
+
+    /**
+     * Schedules a retry of the marks that failed, with exponential backoff capped at an hour, and
+     * dead-letters the ones that reached maxAttempts. Marks changed since they were read are left
+     * alone; they are retried as new.
+     *
+     * @return IDs of the posts dead-lettered.
+     */
+    @Transactional
+    @Query(value =
+            "WITH failed AS (" +
+            "UPDATE post_index_queue q SET attempts = q.attempts + 1, " +
+            "retry_at = clock_timestamp() + make_interval(secs => LEAST(:retryDelaySeconds * power(2, q.attempts), 3600)), " +
+            "dead_lettered_at = CASE WHEN q.attempts + 1 >= :maxAttempts THEN clock_timestamp() END " +
+            "FROM unnest(CAST(:postIds AS integer[]), CAST(:versions AS bigint[])) AS r(post_id, version) " +
+            "WHERE q.post_id = r.post_id AND q.version = r.version " +
+            "RETURNING q.post_id, q.dead_lettered_at) " +
+            "SELECT post_id FROM failed WHERE dead_lettered_at IS NOT NULL",
+            nativeQuery = true)
+    List<Integer> markFailed(@Param("postIds") Integer[] postIds,
+                             @Param("versions") Long[] versions,
+                             @Param("retryDelaySeconds") long retryDelaySeconds,
+                             @Param("maxAttempts") int maxAttempts);
+}
@@ -0,0 +1,19 @@
+package com.raul.paste_service.repositories;
+
+import com.raul.paste_service.models.PostContent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface PostContentRepository extends JpaRepository<PostContent, Integer> {
+
+    /**
+     * Loads the bodies of any number of posts; the IDs are bound as one array.
+     */
+    @Query(value = "SELECT * FROM post_contents WHERE post_id = ANY(CAST(:postIds AS integer[]))", nativeQuery = true)
+    List<PostContent> findAllByPostIdIn(@Param("postIds") Integer[] postIds);
+}
@@ -1,30 +1,40 @@
 package com.raul.paste_service.repositories;
 
+import com.raul.paste_service.dto.post.PostKeysetView;
 import com.raul.paste_service.models.PostLike;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface PostLikeRepository extends JpaRepository<PostLike, Integer> {
 
-    @Query("SELECT COUNT(l) FROM PostLike l WHERE l.post.id = :postId")
-    Integer countLikesByPostId(@Param("postId") Integer postId);
-
     Boolean existsByPost_IdAndUserId(Integer postId, Integer userId);
 
     Optional<PostLike> findByPost_IdAndUserId(Integer postId, Integer userId);
 
-    List<PostLike> findByUserId(Integer userId);
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM PostLike l WHERE l.post.id = :postId AND l.userId = :userId")
+    int deleteByPostIdAndUserId(@Param("postId") Integer postId, @Param("userId") Integer userId);
 
     @Query(value =
-            "SELECT MAX(likeCount) " +
-            "FROM (SELECT COUNT(p.id) AS likeCount " +
-            "FROM post_likes p GROUP BY p.post_id) AS likeCounts",
+            "SELECT l.post_id AS \"postId\", CAST(l.created_at AS timestamp) AS \"createdAt\", l.id AS \"cursorId\" " +
+            "FROM post_likes l WHERE l.user_id = :userId " +
+            "AND (l.created_at, l.id) < (:createdAt, :id) " +
+            "ORDER BY l.created_at DESC, l.id DESC LIMIT :limit",
             nativeQuery = true)
-    int findMaxLikes();
+    List<PostKeysetView> findPageByUserId(@Param("userId") Integer userId,
+                                          @Param("createdAt") LocalDateTime createdAt,
+                                          @Param("id") Integer id,
+                                          @Param("limit") int limit);
+
+    long countByUserId(Integer userId);
 }
@@ -0,0 +1,37 @@
+package com.raul.paste_service.repositories;
+
+import com.raul.common.jobs.JobCoordinator;
+import com.raul.paste_service.models.PostRatingStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface PostRatingStatsRepository extends JpaRepository<PostRatingStats, Integer> {
+
+    @Transactional
+    @Modifying
+    @Query(value =
+            "INSERT INTO post_rating_stats (id, max_likes, max_views) " +
+            "SELECT 1, COALESCE(MAX(likes_count), 0), COALESCE(MAX(views_count), 0) FROM posts " +
+            "WHERE NOT EXISTS (SELECT 1 FROM post_rating_stats) " +
+            "ON CONFLICT (id) DO NOTHING",
+            nativeQuery = true)
+    void initMaxima();
+
+    /**
+     * Replaces the maxima with exact values, provided the job still holds its lease.
+     */
+    @Transactional
+    @Modifying
+    @Query(value =
+            "INSERT INTO post_rating_stats (id, max_likes, max_views) " +
+            "SELECT 1, COALESCE(MAX(likes_count), 0), COALESCE(MAX(views_count), 0) FROM posts " +
+            "HAVING " + JobCoordinator.FENCE + " " +
+            "ON CONFLICT (id) DO UPDATE SET max_likes = EXCLUDED.max_likes, max_views = EXCLUDED.max_views",
+            nativeQuery = true)
+    void recomputeMaxima(@Param("leaseName") String leaseName, @Param("fencingToken") long fencingToken);
+}
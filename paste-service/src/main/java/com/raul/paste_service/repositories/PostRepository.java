@@ -1,5 +1,12 @@
 package com.raul.paste_service.repositories;
 
+import com.raul.common.jobs.JobCoordinator;
+import com.raul.paste_service.dto.post.PostExpiryView;
+import com.raul.paste_service.dto.post.PostIndexStateView;
+import com.raul.paste_service.dto.post.PostKeysetView;
+import com.raul.paste_service.dto.post.PostNotificationView;
+import com.raul.paste_service.dto.post.PostSummaryView;
+import com.raul.paste_service.dto.post.PostTagView;
 import com.raul.paste_service.models.Post;
 import org.jetbrains.annotations.NotNull;
 import org.springframework.data.jpa.repository.EntityGraph;
@@ -11,57 +18,308 @@ import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface PostRepository extends JpaRepository<Post, Integer> {
+
+    /**
+     * Rating of post p given the maxima in post_rating_stats s:
+     * 0.7 * average grade + 0.2 * normalized likes + 0.1 * normalized views, rounded half up, clamped to 1..5.
+     */
+    String RATING_FORMULA =
+            "GREATEST(1, LEAST(5, FLOOR(" +
+            "0.7 * CASE WHEN p.grade_count > 0 THEN p.grade_sum * 1.0 / p.grade_count ELSE 1.0 END " +
+            "+ 0.2 * CASE WHEN s.max_likes > 0 THEN 1 + p.likes_count * 4.0 / s.max_likes ELSE 1 END " +
+            "+ 0.1 * CASE WHEN s.max_views > 0 THEN 1 + p.views_count * 4.0 / s.max_views ELSE 1 END " +
+            "+ 0.5)))";
+
+    /**
+     * Marks the next batch of due posts as deleted and returns them. Locked rows are skipped,
+     * so several nodes can drain the partial expires_at index concurrently. Nothing is marked
+     * once the sweep has lost its lease.
+     */
+    @Transactional
+    @Query(value =
+            "WITH due AS (" +
+            "SELECT id FROM posts WHERE is_deleted = false AND expires_at <= :now AND " + JobCoordinator.FENCE + " " +
+            "ORDER BY expires_at, id LIMIT :size FOR UPDATE SKIP LOCKED) " +
+            "UPDATE posts p SET is_deleted = true, deleted_at = :now FROM due WHERE p.id = due.id " +
+            "RETURNING p.id AS \"id\", p.title AS \"title\", p.user_id AS \"userId\"",
+            nativeQuery = true)
+    List<PostNotificationView> markAsDeletedExpiredBatch(@Param("now") LocalDateTime now,
+                                                         @Param("size") int size,
+                                                         @Param("leaseName") String leaseName,
+                                                         @Param("fencingToken") long fencingToken);
+
+    @Transactional
+    @Query(value =
+            "WITH due AS (" +
+            "SELECT id FROM posts WHERE id IN (:postIds) AND is_deleted = false AND expires_at <= :now " +
+            "FOR UPDATE SKIP LOCKED) " +
+            "UPDATE posts p SET is_deleted = true, deleted_at = :now FROM due WHERE p.id = due.id " +
+            "RETURNING p.id AS \"id\", p.title AS \"title\", p.user_id AS \"userId\"",
+            nativeQuery = true)
+    List<PostNotificationView> markAsDeletedExpiredByIds(@Param("postIds") Collection<Integer> postIds,
+                                                         @Param("now") LocalDateTime now);
+
+    /**
+     * Reads the next page of live posts with a deadline after (afterExpiresAt, afterId) and no later
+     * than until, in (expires_at, id) order, from the partial expires_at index.
+     */
+    @Query(value =
+            "SELECT id AS \"id\", expires_at AS \"expiresAt\" FROM posts " +
+            "WHERE is_deleted = false AND (expires_at, id) > (:afterExpiresAt, :afterId) AND expires_at <= :until " +
+            "ORDER BY expires_at, id LIMIT :size",
+            nativeQuery = true)
+    List<PostExpiryView> findExpiringPage(@Param("afterExpiresAt") LocalDateTime afterExpiresAt,
+                                          @Param("afterId") Integer afterId,
+                                          @Param("until") LocalDateTime until,
+                                          @Param("size") int size);
+
     @Transactional
     @Modifying
-    @Query("UPDATE Post p SET p.isDeleted = true, p.deletedAt = :now WHERE p.expiresAt <= :now")
-    void markAsDeletedExpiredPosts(@Param("now") LocalDateTime now);
+    @Query(value =
+            "UPDATE posts p SET views_count = p.views_count + v.delta " +
+            "FROM unnest(ARRAY[:postIds], ARRAY[:deltas]) AS v(id, delta) " +
+            "WHERE p.id = v.id",
+            nativeQuery = true)
+    int incrementViews(@Param("postIds") List<Integer> postIds, @Param("deltas") List<Integer> deltas);
 
     @Transactional
     @Modifying
-    @Query("UPDATE Post p SET p.viewsCount = p.viewsCount + 1 WHERE p.id = :postId")
-    void incrementViews(@Param("postId") Integer postId);
+    @Query(value =
+            "UPDATE posts p SET unique_viewers_count = p.unique_viewers_count + v.delta " +
+            "FROM unnest(ARRAY[:postIds], ARRAY[:deltas]) AS v(id, delta) " +
+            "WHERE p.id = v.id AND " + JobCoordinator.FENCE,
+            nativeQuery = true)
+    int incrementUniqueViewers(@Param("postIds") List<Integer> postIds,
+                               @Param("deltas") List<Integer> deltas,
+                               @Param("leaseName") String leaseName,
+                               @Param("fencingToken") long fencingToken);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Post p SET p.likesCount = p.likesCount + :delta WHERE p.id = :postId")
+    void adjustLikesCount(@Param("postId") Integer postId, @Param("delta") int delta);
+
+    /**
+     * Row-locks the posts in (afterId, upToId] until the current transaction ends, so likes and unlikes
+     * of those posts wait instead of committing between a later statement's snapshot and its update.
+     *
+     * @return Number of posts locked.
+     */
+    @Query(value =
+            "SELECT COUNT(*) FROM (SELECT 1 FROM posts WHERE id > :afterId AND id <= :upToId ORDER BY id FOR UPDATE) locked",
+            nativeQuery = true)
+    int lockRange(@Param("afterId") Integer afterId, @Param("upToId") Integer upToId);
+
+    /**
+     * Resets likes_count of the posts in (afterId, upToId] that drifted from their post_likes rows.
+     * Run it after {@link #lockRange} in the same transaction: the counts are then taken from a snapshot
+     * no concurrent adjustLikesCount can commit after.
+     */
+    @Transactional
+    @Modifying
+    @Query(value =
+            "UPDATE posts p SET likes_count = (SELECT COUNT(*) FROM post_likes l WHERE l.post_id = p.id) " +
+            "WHERE p.id > :afterId AND p.id <= :upToId " +
+            "AND p.likes_count <> (SELECT COUNT(*) FROM post_likes l WHERE l.post_id = p.id) " +
+            "AND " + JobCoordinator.FENCE,
+            nativeQuery = true)
+    int reconcileLikesCountInRange(@Param("afterId") Integer afterId,
+                                   @Param("upToId") Integer upToId,
+                                   @Param("leaseName") String leaseName,
+                                   @Param("fencingToken") long fencingToken);
 
     @EntityGraph(attributePaths = {"tags"})
     @Query("SELECT p FROM Post p WHERE p.viewsCount >= 1000 AND p.isDeleted = false")
     List<Post> findAllByViewsCount();
 
-    @Query("SELECT p FROM Post p WHERE p.expiresAt IS NOT NULL AND p.expiresAt <= :now AND p.isDeleted = false")
-    List<Post> findAllExpiredPosts(@Param("now") LocalDateTime now);
-
+    /**
+     * Loads posts with their tags. Every ID is a bind parameter, so callers pass bounded batches
+     * such as a page or a relay batch.
+     */
     @EntityGraph(attributePaths = {"tags"})
-    Optional<Post> findBySlugAndIsDeletedFalse(String slug);
+    List<Post> findAllByIdIn(Collection<Integer> ids);
+
+    /**
+     * @return IDs among the given ones of posts neither deleted nor expired; the IDs are bound as one array.
+     */
+    @Query(value =
+            "SELECT id FROM posts WHERE id = ANY(CAST(:ids AS integer[])) AND is_deleted = false " +
+            "AND (expires_at IS NULL OR expires_at > :now)",
+            nativeQuery = true)
+    List<Integer> findLiveIdsByIdIn(@Param("ids") Integer[] ids, @Param("now") LocalDateTime now);
 
+    @Query("SELECT p.id AS id, p.title AS title, p.slug AS slug, p.summary AS summary, p.userId AS userId, " +
+            "p.rating AS rating, p.likesCount AS likesCount, p.viewsCount AS viewsCount, " +
+            "p.uniqueViewersCount AS uniqueViewersCount, p.expiresAt AS expiresAt, p.hash AS hash " +
+            "FROM Post p WHERE p.id IN :ids")
+    List<PostSummaryView> findSummariesByIdIn(@Param("ids") Collection<Integer> ids);
+
+    @Query("SELECT p.id AS postId, t.name AS name FROM Post p JOIN p.tags t WHERE p.id IN :ids")
+    List<PostTagView> findTagNamesByPostIdIn(@Param("ids") Collection<Integer> ids);
+
+    @Query("SELECT p.id AS id, p.isDeleted AS isDeleted, p.expiresAt AS expiresAt, p.updatedAt AS updatedAt, " +
+            "p.likesCount AS likesCount, p.viewsCount AS viewsCount, p.rating AS rating " +
+            "FROM Post p WHERE p.id IN :ids")
+    List<PostIndexStateView> findIndexStateByIdIn(@Param("ids") Collection<Integer> ids);
+
+    @Query("SELECT p.id FROM Post p WHERE p.slug = :slug AND p.isDeleted = false")
+    Optional<Integer> findIdBySlug(@Param("slug") String slug);
+
+    @EntityGraph(attributePaths = {"tags"})
     Optional<Post> findByIdAndIsDeletedFalse(@NotNull Integer postId);
 
-    List<Post> findAllByUserId(Integer userId);
+    Boolean existsByUserId(Integer userId);
 
-    @Query("SELECT p FROM Post p WHERE p.isDeleted = true AND p.deletedAt <= :threshold")
-    List<Post> findPostsDeletedBefore(@Param("threshold") LocalDateTime threshold);
+    @Transactional
+    @Query(value =
+            "UPDATE posts SET is_deleted = true, deleted_at = :now " +
+            "WHERE user_id = :userId AND is_deleted = false " +
+            "RETURNING id",
+            nativeQuery = true)
+    List<Integer> markAsDeletedAllByUserId(@Param("userId") Integer userId, @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Query(value =
+            "UPDATE posts SET is_deleted = false, deleted_at = NULL, expires_at = :now + (deleted_at - expires_at) " +
+            "WHERE user_id = :userId AND is_deleted = true " +
+            "RETURNING id AS \"id\", expires_at AS \"expiresAt\"",
+            nativeQuery = true)
+    List<PostExpiryView> restoreAllByUserId(@Param("userId") Integer userId, @Param("now") LocalDateTime now);
+
+    /**
+     * Hard-deletes the next batch of posts deleted before the threshold, together with their
+     * contents, likes, reviews, tag links and notification records, and returns the purged IDs.
+     * Foreign keys are checked at the end of the statement, after the children are gone.
+     * Nothing is purged once the job has lost its lease.
+     */
+    @Transactional
+    @Query(value =
+            "WITH doomed AS (" +
+            "SELECT id FROM posts WHERE is_deleted = true AND deleted_at <= :threshold AND " + JobCoordinator.FENCE + " " +
+            "ORDER BY deleted_at, id LIMIT :size FOR UPDATE SKIP LOCKED), " +
+            "deleted_contents AS (DELETE FROM post_contents WHERE post_id IN (SELECT id FROM doomed)), " +
+            "deleted_likes AS (DELETE FROM post_likes WHERE post_id IN (SELECT id FROM doomed)), " +
+            "deleted_reviews AS (DELETE FROM reviews WHERE post_id IN (SELECT id FROM doomed)), " +
+            "deleted_tags AS (DELETE FROM post_tags WHERE post_id IN (SELECT id FROM doomed)), " +
+            "deleted_notifications AS (DELETE FROM sent_notification WHERE post_id IN (SELECT id FROM doomed)) " +
+            "DELETE FROM posts WHERE id IN (SELECT id FROM doomed) RETURNING id",
+            nativeQuery = true)
+    List<Integer> purgeDeletedBatch(@Param("threshold") LocalDateTime threshold,
+                                    @Param("size") int size,
+                                    @Param("leaseName") String leaseName,
+                                    @Param("fencingToken") long fencingToken);
+
+    @Query(value =
+            "SELECT MAX(chunk.id) FROM (SELECT id FROM posts WHERE id > :afterId ORDER BY id LIMIT :size) chunk",
+            nativeQuery = true)
+    Integer findChunkUpperId(@Param("afterId") Integer afterId, @Param("size") int size);
+
+    @Query("SELECT COALESCE(MAX(p.id), 0) FROM Post p")
+    int findMaxId();
+
+    @Transactional
+    @Modifying
+    @Query(value =
+            "UPDATE posts p SET grade_sum = a.grade_sum, grade_count = a.grade_count " +
+            "FROM (SELECT p2.id, COALESCE(SUM(r.grade), 0) AS grade_sum, COUNT(r.id) AS grade_count " +
+            "FROM posts p2 LEFT JOIN reviews r ON r.post_id = p2.id " +
+            "WHERE p2.id > :afterId AND p2.id <= :upToId GROUP BY p2.id) a " +
+            "WHERE p.id = a.id AND (p.grade_sum <> a.grade_sum OR p.grade_count <> a.grade_count) " +
+            "AND " + JobCoordinator.FENCE,
+            nativeQuery = true)
+    int reconcileGradesInRange(@Param("afterId") Integer afterId,
+                               @Param("upToId") Integer upToId,
+                               @Param("leaseName") String leaseName,
+                               @Param("fencingToken") long fencingToken);
 
-    List<Post> findAllByIsDeletedFalse();
+    /**
+     * Re-rates the posts in (afterId, upToId] whose rating drifted and marks them for re-indexing
+     * with the given change bits, in the same statement.
+     *
+     * @return Number of posts re-rated.
+     */
+    @Transactional
+    @Modifying
+    @Query(value =
+            "WITH rated AS (" +
+            "UPDATE posts p SET rating = " + RATING_FORMULA + " " +
+            "FROM post_rating_stats s " +
+            "WHERE s.id = 1 AND p.id > :afterId AND p.id <= :upToId AND p.is_deleted = false " +
+            "AND p.rating <> " + RATING_FORMULA + " AND " + JobCoordinator.FENCE + " " +
+            "RETURNING p.id) " +
+            "INSERT INTO post_index_queue (post_id, enqueued_at, changes) " +
+            "SELECT id, clock_timestamp(), :changes FROM rated " +
+            PendingPostIndexRepository.MERGE_MARK,
+            nativeQuery = true)
+    int updateRatingsInRange(@Param("afterId") Integer afterId,
+                             @Param("upToId") Integer upToId,
+                             @Param("changes") int changes,
+                             @Param("leaseName") String leaseName,
+                             @Param("fencingToken") long fencingToken);
+
+    @Transactional
+    @Modifying
+    @Query(value =
+            "WITH raised AS (" +
+            "UPDATE post_rating_stats s " +
+            "SET max_likes = GREATEST(s.max_likes, m.likes), max_views = GREATEST(s.max_views, m.views) " +
+            "FROM (SELECT MAX(likes_count) AS likes, MAX(views_count) AS views FROM posts WHERE id IN (:postIds)) m " +
+            "WHERE s.id = 1 AND (m.likes > s.max_likes OR m.views > s.max_views) " +
+            "RETURNING s.max_likes, s.max_views) " +
+            "UPDATE posts p SET rating = " + RATING_FORMULA + " " +
+            "FROM (SELECT max_likes, max_views FROM raised " +
+            "UNION ALL " +
+            "SELECT max_likes, max_views FROM post_rating_stats " +
+            "WHERE id = 1 AND NOT EXISTS (SELECT 1 FROM raised)) s " +
+            "WHERE p.id IN (:postIds) AND p.is_deleted = false AND p.rating <> " + RATING_FORMULA,
+            nativeQuery = true)
+    int refreshRatings(@Param("postIds") Collection<Integer> postIds);
 
-    @Query("SELECT COALESCE(MAX(p.viewsCount), 0) FROM Post p")
-    int findMaxViews();
+    @Transactional
+    @Modifying
+    @Query("UPDATE Post p SET p.gradeSum = p.gradeSum + :gradeDelta, p.gradeCount = p.gradeCount + :countDelta " +
+            "WHERE p.id = :postId")
+    void adjustGrades(@Param("postId") Integer postId,
+                      @Param("gradeDelta") int gradeDelta,
+                      @Param("countDelta") int countDelta);
+
+    @Query(value =
+            "SELECT p.id AS \"postId\", CAST(p.created_at AS timestamp) AS \"createdAt\", p.id AS \"cursorId\" " +
+            "FROM posts p WHERE p.user_id = :userId AND p.is_deleted = false " +
+            "AND (p.created_at, p.id) < (:createdAt, :id) " +
+            "ORDER BY p.created_at DESC, p.id DESC LIMIT :limit",
+            nativeQuery = true)
+    List<PostKeysetView> findPageByUserId(@Param("userId") Integer userId,
+                                          @Param("createdAt") LocalDateTime createdAt,
+                                          @Param("id") Integer id,
+                                          @Param("limit") int limit);
 
-    List<Post> findAllByUserIdAndIsDeletedFalse(Integer userId);
+    long countByUserIdAndIsDeletedFalse(Integer userId);
 
-    List<Post> findByUserIdAndIsDeletedTrue(Integer userId);
+    @Query(value =
+            "SELECT p.id AS \"postId\", CAST(p.created_at AS timestamp) AS \"createdAt\", p.id AS \"cursorId\" " +
+            "FROM posts p WHERE p.user_id = :userId AND p.is_deleted = true " +
+            "AND (p.created_at, p.id) < (:createdAt, :id) " +
+            "ORDER BY p.created_at DESC, p.id DESC LIMIT :limit",
+            nativeQuery = true)
+    List<PostKeysetView> findDeletedPageByUserId(@Param("userId") Integer userId,
+                                                 @Param("createdAt") LocalDateTime createdAt,
+                                                 @Param("id") Integer id,
+                                                 @Param("limit") int limit);
 
-    @Query("SELECT p.userId FROM Post p WHERE p.id = :postId AND p.isDeleted = false")
-    Optional<Integer> findAuthorId(@Param("postId") Integer postId);
+    long countByUserIdAndIsDeletedTrue(Integer userId);
 
     Optional<Post> findByIdAndIsDeletedTrue(Integer postId);
 
     Boolean existsByHash(String hash);
 
-    Boolean existsBySlug(String slug);
-
-    @EntityGraph(attributePaths = {"tags"})
-    Optional<Post> findByHashAndIsDeletedFalse(String hash);
+    @Query("SELECT p.id FROM Post p WHERE p.hash = :hash AND p.isDeleted = false")
+    Optional<Integer> findIdByHash(@Param("hash") String hash);
 
 }
@@ -0,0 +1,32 @@
+package com.raul.paste_service.repositories;
+
+import com.raul.paste_service.models.SlugCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface SlugCounterRepository extends JpaRepository<SlugCounter, String> {
+
+    @Query(value =
+            "INSERT INTO slug_counters (base_slug, last_suffix) VALUES (:baseSlug, 1) " +
+            "ON CONFLICT (base_slug) DO UPDATE SET last_suffix = slug_counters.last_suffix + 1 " +
+            "RETURNING last_suffix",
+            nativeQuery = true)
+    int nextSuffix(@Param("baseSlug") String baseSlug);
+
+    /**
+     * Moves the counter past every existing "baseSlug-N" post slug and returns the next suffix.
+     * Only used after a slug conflict, when the counter has fallen behind the posts table.
+     */
+    @Query(value =
+            "INSERT INTO slug_counters (base_slug, last_suffix) " +
+            "SELECT :baseSlug, COALESCE(MAX(CAST(substring(slug from '-([0-9]+)$') AS INTEGER)), 0) + 1 " +
+            "FROM posts WHERE slug ~ ('^' || :baseSlug || '-[0-9]+$') " +
+            "ON CONFLICT (base_slug) DO UPDATE " +
+            "SET last_suffix = GREATEST(slug_counters.last_suffix + 1, EXCLUDED.last_suffix) " +
+            "RETURNING last_suffix",
+            nativeQuery = true)
+    int nextSuffixAfterExisting(@Param("baseSlug") String baseSlug);
+}
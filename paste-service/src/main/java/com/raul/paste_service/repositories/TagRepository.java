@@ -2,11 +2,36 @@ package com.raul.paste_service.repositories;
 
 import com.raul.paste_service.models.Tag;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface TagRepository extends JpaRepository<Tag, Integer> {
     Optional<Tag> findByName(String tagName);
+
+    List<Tag> findAllByNameIn(Collection<String> names);
+
+    @Query(value =
+            "WITH input AS (SELECT DISTINCT unnest(ARRAY[:names]) AS name), " +
+            "inserted AS (INSERT INTO tags (name) SELECT name FROM input " +
+            "ON CONFLICT (name) DO NOTHING RETURNING id, name) " +
+            "SELECT id, name FROM inserted " +
+            "UNION ALL " +
+            "SELECT t.id, t.name FROM tags t JOIN input i ON i.name = t.name",
+            nativeQuery = true)
+    List<Tag> upsertAllByName(@Param("names") Collection<String> names);
+
+    @Query(value =
+            "SELECT t.id, t.name FROM tags t " +
+            "JOIN post_tags pt ON pt.tag_id = t.id " +
+            "GROUP BY t.id, t.name " +
+            "ORDER BY COUNT(*) DESC " +
+            "LIMIT :limit",
+            nativeQuery = true)
+    List<Tag> findMostUsed(@Param("limit") int limit);
 }
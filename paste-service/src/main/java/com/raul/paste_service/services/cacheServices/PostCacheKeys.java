@@ -0,0 +1,32 @@
+package com.raul.paste_service.services.cacheServices;
+
+/**
+ * Single key scheme for cached posts, shared by every reader and writer of the post cache.
+ */
+public final class PostCacheKeys {
+
+    public static final String POSTS_CACHE = "posts::";
+    public static final String INVALIDATION_CHANNEL = "posts:invalidation";
+
+    private PostCacheKeys() {
+    }
+
+    public static String byId(Integer postId) {
+        return POSTS_CACHE + postId;
+    }
+
+    public static String byHash(String hash) {
+        return POSTS_CACHE + "hash:" + hash;
+    }
+
+    public static String bySlug(String slug) {
+        return POSTS_CACHE + "slug:" + slug;
+    }
+
+    /**
+     * Counter bumped on every invalidation of the post, so delayed writers can tell they read a stale copy.
+     */
+    public static String version(Integer postId) {
+        return POSTS_CACHE + "version:" + postId;
+    }
+}
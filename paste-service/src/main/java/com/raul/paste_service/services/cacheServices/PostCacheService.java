@@ -0,0 +1,374 @@
+package com.raul.paste_service.services.cacheServices;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.raul.paste_service.dto.post.PostCacheEntry;
+import com.raul.paste_service.dto.post.PostResponseDto;
+import com.raul.paste_service.models.Post;
+import com.raul.paste_service.repositories.PostRepository;
+import com.raul.paste_service.services.postServices.PostContentService;
+import com.raul.paste_service.services.postServices.PostConverter;
+import com.raul.paste_service.utils.exceptions.PostNotFoundException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Read-through post cache with an in-process tier (L1) in front of Redis (L2).
+ * ID, hash and slug are aliases of one cached entry; writes invalidate it on every node.
+ */
+@Service
+@RequiredArgsConstructor
+public class PostCacheService implements MessageListener {
+
+    private final PostRepository postRepository;
+    private final PostConverter converter;
+    private final PostContentService postContentService;
+    private final Cache<Integer, PostCacheEntry> localPostCache;
+    private final Cache<String, Integer> localPostAliasCache;
+    private final RedisTemplate<String, PostCacheEntry> postCacheRedisTemplate;
+    private final RedisTemplate<String, String> stringRedisTemplate;
+    private final RedisMessageListenerContainer redisMessageListenerContainer;
+    private final MeterRegistry meterRegistry;
+    private static final int INVALIDATION_MESSAGE_SIZE = 1000;
+
+    /**
+     * Writes the entry (KEYS[1]) and its hash and slug aliases (KEYS[2], KEYS[3]) only if the
+     * version counter (KEYS[4]) still holds ARGV[3], the value seen before the post was read.
+     */
+    private static final byte[] PUT_IF_UNCHANGED_SCRIPT = (
+            "if (redis.call('GET', KEYS[4]) or '') ~= ARGV[3] then return 0 end " +
+            "redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[4]) " +
+            "redis.call('SET', KEYS[2], ARGV[2], 'PX', ARGV[4]) " +
+            "redis.call('SET', KEYS[3], ARGV[2], 'PX', ARGV[4]) " +
+            "return 1").getBytes(StandardCharsets.UTF_8);
+    private static final Marker CUSTOM_LOG_MARKER = MarkerFactory.getMarker("CUSTOM_LOGGER");
+    private static final Logger customLog = LoggerFactory.getLogger("CUSTOM_LOGGER");
+
+    @Value("${cache.posts.redis.ttl-seconds:60}")
+    private long redisTtlSeconds;
+
+    @Value("${cache.posts.version.ttl-seconds:86400}")
+    private long versionTtlSeconds;
+
+    private Counter redisHits;
+    private Counter redisMisses;
+    private Counter redisEvictions;
+
+    @PostConstruct
+    void init() {
+        redisHits = meterRegistry.counter("posts.l2.requests", "result", "hit");
+        redisMisses = meterRegistry.counter("posts.l2.requests", "result", "miss");
+        redisEvictions = meterRegistry.counter("posts.l2.evictions");
+        redisMessageListenerContainer.addMessageListener(this, new ChannelTopic(PostCacheKeys.INVALIDATION_CHANNEL));
+    }
+
+    /**
+     * Retrieves a non-deleted post by its ID.
+     *
+     * @param postId ID of the post.
+     * @return Cached post entry.
+     */
+    public PostCacheEntry getById(Integer postId) {
+        PostCacheEntry entry = localPostCache.getIfPresent(postId);
+        if (entry != null) {
+            return requireLive(entry);
+        }
+
+        entry = readFromRedis(PostCacheKeys.byId(postId));
+        if (entry != null) {
+            localPostCache.put(postId, entry);
+            return requireLive(entry);
+        }
+
+        return requireLive(load(postId));
+    }
+
+    /**
+     * Retrieves a non-deleted post by its hash.
+     *
+     * @param hash Hash of the post.
+     * @return Cached post entry.
+     */
+    public PostCacheEntry getByHash(String hash) {
+        return getByAlias(PostCacheKeys.byHash(hash), () -> postRepository.findIdByHash(hash));
+    }
+
+    /**
+     * Retrieves a non-deleted post by its slug.
+     *
+     * @param slug Slug of the post.
+     * @return Cached post entry.
+     */
+    public PostCacheEntry getBySlug(String slug) {
+        return getByAlias(PostCacheKeys.bySlug(slug), () -> postRepository.findIdBySlug(slug));
+    }
+
+    /**
+     * @param entry Cached post.
+     * @return Response of the post, with the body read from storage if it was too large to cache.
+     */
+    public PostResponseDto responseOf(PostCacheEntry entry) {
+        if (!entry.contentOmitted()) {
+            return entry.response();
+        }
+        return entry.response().toBuilder()
+                .content(postContentService.getContent(entry.id()))
+                .build();
+    }
+
+    /**
+     * Reads the invalidation versions of posts. Take them before reading the posts to cache
+     * and pass them to {@link #putAllIfUnchanged}.
+     *
+     * @param postIds IDs of the posts.
+     * @return Versions by post ID; empty if Redis could not be read.
+     */
+    public Map<Integer, String> readVersions(List<Integer> postIds) {
+        if (postIds.isEmpty()) {
+            return Map.of();
+        }
+
+        try {
+            List<String> versions = stringRedisTemplate.opsForValue()
+                    .multiGet(postIds.stream().map(PostCacheKeys::version).toList());
+            Map<Integer, String> byPostId = new HashMap<>();
+            for (int i = 0; i < postIds.size(); i++) {
+                String version = versions == null ? null : versions.get(i);
+                byPostId.put(postIds.get(i), version == null ? "" : version);
+            }
+            return byPostId;
+        } catch (Exception e) {
+            customLog.error(CUSTOM_LOG_MARKER, "Failed to read versions of {} posts from Redis", postIds.size(), e);
+            return Map.of();
+        }
+    }
+
+    /**
+     * Writes posts through both tiers in a single pipelined Redis round trip, skipping every post
+     * invalidated since its version was read. An eviction that already happened always wins.
+     *
+     * @param entries  Entries to cache, each with its own Redis TTL.
+     * @param versions Versions read by {@link #readVersions} before the posts were loaded.
+     * @return Number of posts cached.
+     */
+    @SuppressWarnings("unchecked")
+    public int putAllIfUnchanged(Map<PostCacheEntry, Duration> entries, Map<Integer, String> versions) {
+        List<Map.Entry<PostCacheEntry, Duration>> candidates = entries.entrySet().stream()
+                .filter(entry -> versions.containsKey(entry.getKey().id()))
+                .toList();
+        if (candidates.isEmpty()) {
+            return 0;
+        }
+
+        RedisSerializer<PostCacheEntry> valueSerializer =
+                (RedisSerializer<PostCacheEntry>) postCacheRedisTemplate.getValueSerializer();
+        RedisSerializer<String> stringSerializer = RedisSerializer.string();
+
+        List<Object> results;
+        try {
+            results = postCacheRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                candidates.forEach(candidate -> {
+                    PostCacheEntry entry = candidate.getKey();
+                    connection.scriptingCommands().eval(PUT_IF_UNCHANGED_SCRIPT, ReturnType.INTEGER, 4,
+                            stringSerializer.serialize(PostCacheKeys.byId(entry.id())),
+                            stringSerializer.serialize(PostCacheKeys.byHash(entry.hash())),
+                            stringSerializer.serialize(PostCacheKeys.bySlug(entry.slug())),
+                            stringSerializer.serialize(PostCacheKeys.version(entry.id())),
+                            valueSerializer.serialize(entry),
+                            stringSerializer.serialize(entry.id().toString()),
+                            stringSerializer.serialize(versions.get(entry.id())),
+                            stringSerializer.serialize(String.valueOf(candidate.getValue().toMillis())));
+                });
+                return null;
+            });
+        } catch (Exception e) {
+            customLog.error(CUSTOM_LOG_MARKER, "Failed to cache {} posts in Redis", candidates.size(), e);
+            return 0;
+        }
+
+        int cached = 0;
+        for (int i = 0; i < candidates.size(); i++) {
+            if (Long.valueOf(1L).equals(results.get(i))) {
+                PostCacheEntry entry = candidates.get(i).getKey();
+                localPostCache.put(entry.id(), entry);
+                cached++;
+            }
+        }
+        return cached;
+    }
+
+    /**
+     * Invalidates a post on every node once the current transaction commits.
+     *
+     * @param postId ID of the post to invalidate.
+     */
+    public void evict(Integer postId) {
+        evictAll(List.of(postId));
+    }
+
+    /**
+     * Invalidates posts on every node once the current transaction commits.
+     *
+     * @param postIds IDs of the posts to invalidate.
+     */
+    public void evictAll(Collection<Integer> postIds) {
+        if (postIds.isEmpty()) {
+            return;
+        }
+
+        List<Integer> ids = List.copyOf(postIds);
+        runAfterCommit(() -> {
+            localPostCache.invalidateAll(ids);
+            try {
+                bumpVersions(ids);
+                Long deleted = postCacheRedisTemplate.delete(ids.stream().map(PostCacheKeys::byId).toList());
+                redisEvictions.increment(deleted == null ? 0 : deleted);
+                for (int from = 0; from < ids.size(); from += INVALIDATION_MESSAGE_SIZE) {
+                    String message = ids.subList(from, Math.min(from + INVALIDATION_MESSAGE_SIZE, ids.size())).stream()
+                            .map(String::valueOf)
+                            .collect(Collectors.joining(","));
+                    stringRedisTemplate.convertAndSend(PostCacheKeys.INVALIDATION_CHANNEL, message);
+                }
+            } catch (Exception e) {
+                customLog.error(CUSTOM_LOG_MARKER, "Failed to invalidate posts {} in Redis", ids, e);
+            }
+        });
+    }
+
+    /**
+     * Drops posts from the local tier when another node invalidates them.
+     * Messages carry one post ID or a comma-separated batch of them.
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            localPostCache.invalidateAll(Arrays.stream(new String(message.getBody(), StandardCharsets.UTF_8).split(","))
+                    .map(Integer::valueOf)
+                    .toList());
+        } catch (NumberFormatException e) {
+            customLog.warn(CUSTOM_LOG_MARKER, "Ignoring malformed post cache invalidation message");
+        }
+    }
+
+    /**
+     * Resolves a hash or slug to the post ID and reads the post by ID. Both identifiers are immutable,
+     * so only the post itself needs the invalidation check.
+     */
+    private PostCacheEntry getByAlias(String aliasKey, Supplier<Optional<Integer>> idLoader) {
+        Integer postId = localPostAliasCache.getIfPresent(aliasKey);
+        if (postId == null) {
+            String cachedId = readAlias(aliasKey);
+            if (cachedId != null) {
+                postId = Integer.valueOf(cachedId);
+                localPostAliasCache.put(aliasKey, postId);
+            }
+        }
+
+        if (postId == null) {
+            postId = idLoader.get().orElseThrow(() -> new PostNotFoundException("Post not found"));
+            localPostAliasCache.put(aliasKey, postId);
+        }
+
+        return getById(postId);
+    }
+
+    /**
+     * Treats a post past its deadline as gone, even before the expiry job has marked it deleted.
+     */
+    private PostCacheEntry requireLive(PostCacheEntry entry) {
+        if (entry.expiresAt() != null && !entry.expiresAt().isAfter(LocalDateTime.now())) {
+            throw new PostNotFoundException("Post not found");
+        }
+        return entry;
+    }
+
+    /**
+     * Reads a post from the database and caches it, unless it was invalidated while it was being read:
+     * the version is taken before the read, so an eviction committed in between always wins.
+     */
+    private PostCacheEntry load(Integer postId) {
+        Map<Integer, String> versions = readVersions(List.of(postId));
+        Post post = postRepository.findByIdAndIsDeletedFalse(postId)
+                .orElseThrow(() -> new PostNotFoundException("Post not found"));
+
+        PostCacheEntry entry = converter.convertToPostCacheEntry(post, postContentService.getContent(post.getId()));
+        putAllIfUnchanged(Map.of(entry, Duration.ofSeconds(redisTtlSeconds)), versions);
+        return entry;
+    }
+
+    private PostCacheEntry readFromRedis(String key) {
+        try {
+            PostCacheEntry entry = postCacheRedisTemplate.opsForValue().get(key);
+            (entry != null ? redisHits : redisMisses).increment();
+            return entry;
+        } catch (Exception e) {
+            customLog.error(CUSTOM_LOG_MARKER, "Failed to read {} from Redis", key, e);
+            redisMisses.increment();
+            return null;
+        }
+    }
+
+    private String readAlias(String aliasKey) {
+        try {
+            return stringRedisTemplate.opsForValue().get(aliasKey);
+        } catch (Exception e) {
+            customLog.error(CUSTOM_LOG_MARKER, "Failed to read {} from Redis", aliasKey, e);
+            return null;
+        }
+    }
+
+    private void bumpVersions(List<Integer> postIds) {
+        RedisSerializer<String> stringSerializer = RedisSerializer.string();
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            postIds.forEach(postId -> {
+                byte[] key = stringSerializer.serialize(PostCacheKeys.version(postId));
+                connection.stringCommands().incr(key);
+                connection.keyCommands().expire(key, versionTtlSeconds);
+            });
+            return null;
+        });
+    }
+
+    private void runAfterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,35 @@
+package com.raul.paste_service.services.kafkaServices;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Turns Kafka send futures into per-topic latency and error metrics (kafka.producer.send{topic,result}).
+ */
+@Component
+@RequiredArgsConstructor
+public class KafkaSendMetrics {
+
+    private final MeterRegistry meterRegistry;
+    private static final Marker CUSTOM_LOG_MARKER = MarkerFactory.getMarker("CUSTOM_LOGGER");
+    private static final Logger customLog = LoggerFactory.getLogger("CUSTOM_LOGGER");
+
+    public <K, V> CompletableFuture<SendResult<K, V>> track(String topic, CompletableFuture<SendResult<K, V>> future) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        return future.whenComplete((result, e) -> {
+            sample.stop(meterRegistry.timer("kafka.producer.send", "topic", topic, "result", e == null ? "success" : "error"));
+            if (e != null) {
+                customLog.error(CUSTOM_LOG_MARKER, "Failed to send message to {}", topic, e);
+            }
+        });
+    }
+}
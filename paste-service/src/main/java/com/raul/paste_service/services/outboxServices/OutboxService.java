@@ -0,0 +1,350 @@
+package com.raul.paste_service.services.outboxServices;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.raul.paste_service.configs.kafka.KafkaPayloadCodec;
+import com.raul.paste_service.dto.notification.EmailNotificationDto;
+import com.raul.paste_service.dto.post.PendingPostIndexView;
+import com.raul.paste_service.dto.post.PostIndexChange;
+import com.raul.paste_service.dto.post.PostIndexStateView;
+import com.raul.paste_service.dto.post.PostPurgeDto;
+import com.raul.paste_service.models.OutboxEvent;
+import com.raul.paste_service.models.Post;
+import com.raul.paste_service.repositories.OutboxEventRepository;
+import com.raul.paste_service.repositories.PendingPostIndexRepository;
+import com.raul.paste_service.repositories.PostRepository;
+import com.raul.paste_service.services.kafkaServices.KafkaSendMetrics;
+import com.raul.paste_service.services.postServices.PostContentService;
+import com.raul.paste_service.services.postServices.PostConverter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.JacksonUtils;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.kafka.support.mapping.AbstractJavaTypeMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Transactional outbox for the Kafka events of paste-service. Events are stored in the same
+ * transaction as the change that caused them and relayed to Kafka in batches afterwards,
+ * so rolled-back changes publish nothing and committed changes are never lost.
+ * Index events are stored as per-post marks and built from the post's state when relayed.
+ * Stored payloads are JSON; {@link KafkaPayloadCodec} encodes them in the wire format when relayed.
+ * Writers of events with the same key are serialized, so per key the ID order is the commit order.
+ */
+@Service
+@RequiredArgsConstructor
+public class OutboxService {
+
+    public static final String POST_INDEX_TOPIC = "post_index_topic_v2";
+    public static final String NOTIFICATION_TOPIC = "email_notification_topic_v2";
+    public static final String POST_PURGE_TOPIC = "post_purge_topic_v2";
+
+    private static final String POST_INDEX_TYPE_ID = "postIndexDto";
+    private static final String POST_INDEX_PATCH_TYPE_ID = "postIndexPatchDto";
+    private static final int KEY_LOCK_NAMESPACE = 0x6f7574;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final PendingPostIndexRepository pendingPostIndexRepository;
+    private final PostRepository postRepository;
+    private final PostConverter converter;
+    private final PostContentService postContentService;
+    private final KafkaTemplate<String, byte[]> outboxKafkaTemplate;
+    private final KafkaPayloadCodec kafkaPayloadCodec;
+    private final KafkaSendMetrics kafkaSendMetrics;
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper payloadMapper = JacksonUtils.enhancedObjectMapper();
+    private static final Marker CUSTOM_LOG_MARKER = MarkerFactory.getMarker("CUSTOM_LOGGER");
+    private static final Logger customLog = LoggerFactory.getLogger("CUSTOM_LOGGER");
+
+    @Value("${outbox.relay.send-timeout-seconds:30}")
+    private long sendTimeoutSeconds;
+
+    @Value("${outbox.index.max-attempts:10}")
+    private int indexMaxAttempts;
+
+    @Value("${outbox.index.retry-delay-seconds:5}")
+    private long indexRetryDelaySeconds;
+
+    /**
+     * Age of the oldest pending event, read from the database so every node reports the same value.
+     */
+    @PostConstruct
+    void init() {
+        meterRegistry.gauge("outbox.relay.lag", this, OutboxService::relayLagSeconds);
+    }
+
+    /**
+     * Marks a post for re-indexing in the current transaction.
+     *
+     * @param postId  ID of the changed post.
+     * @param changes Parts of the document the change touched.
+     */
+    public void enqueuePostIndex(Integer postId, PostIndexChange... changes) {
+        enqueuePostIndexAll(List.of(postId), changes);
+    }
+
+    /**
+     * Marks posts for re-indexing in the current transaction. Marks for the same post are
+     * coalesced until the relay runs, which then sends the post's latest state once, as a
+     * partial update when no mark asked for the full document.
+     *
+     * @param postIds IDs of the changed posts.
+     * @param changes Parts of the documents the change touched.
+     */
+    public void enqueuePostIndexAll(Collection<Integer> postIds, PostIndexChange... changes) {
+        if (!postIds.isEmpty()) {
+            pendingPostIndexRepository.enqueueAll(postIds.toArray(Integer[]::new), PostIndexChange.toBits(changes));
+        }
+    }
+
+    /**
+     * Stores an email notification event in the current transaction, keyed by recipient.
+     *
+     * @param emailDto Notification to send.
+     */
+    @Transactional
+    public void enqueueNotification(EmailNotificationDto emailDto) {
+        enqueue(NOTIFICATION_TOPIC, String.valueOf(emailDto.to()), "emailNotificationDto", emailDto);
+    }
+
+    /**
+     * Stores a purge event in the current transaction, so search-service drops the documents
+     * of exactly the posts the transaction deleted. Purges are idempotent and need no ordering,
+     * so the event is not keyed.
+     *
+     * @param purgeDto IDs of the purged posts.
+     */
+    @Transactional
+    public void enqueuePurge(PostPurgeDto purgeDto) {
+        enqueue(POST_PURGE_TOPIC, null, "postPurgeDto", purgeDto);
+    }
+
+    /**
+     * Publishes the oldest pending events and deletes the ones Kafka acknowledged. Events are sent
+     * in rounds holding at most one event per key, and a key stops at its first failed event, so
+     * the later events of that key stay pending behind it. No transaction is held while waiting
+     * for acknowledgements; the caller must hold the relay lease.
+     * Payloads are sent as stored, with the type header the consumers map to their DTOs.
+     *
+     * @param batchSize Maximum number of events to relay.
+     * @return Number of events acknowledged.
+     */
+    public int relayBatch(int batchSize) {
+        List<OutboxEvent> events = outboxEventRepository.findNextBatch(batchSize);
+        if (events.isEmpty()) {
+            return 0;
+        }
+
+        Map<String, Deque<OutboxEvent>> eventsByKey = new LinkedHashMap<>();
+        for (OutboxEvent event : events) {
+            String key = event.getMessageKey() == null
+                    ? "id:" + event.getId()
+                    : event.getTopic() + ":" + event.getMessageKey();
+            eventsByKey.computeIfAbsent(key, k -> new ArrayDeque<>()).add(event);
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(sendTimeoutSeconds);
+        List<Long> relayedIds = new ArrayList<>(events.size());
+        while (!eventsByKey.isEmpty()) {
+            Map<String, OutboxEvent> round = new LinkedHashMap<>();
+            Map<String, CompletableFuture<SendResult<String, byte[]>>> futures = new HashMap<>();
+            for (Map.Entry<String, Deque<OutboxEvent>> entry : eventsByKey.entrySet()) {
+                OutboxEvent event = entry.getValue().peek();
+                round.put(entry.getKey(), event);
+                futures.put(entry.getKey(), send(event));
+            }
+            outboxKafkaTemplate.flush();
+
+            for (Map.Entry<String, OutboxEvent> entry : round.entrySet()) {
+                OutboxEvent event = entry.getValue();
+                try {
+                    long remaining = Math.max(0, deadline - System.nanoTime());
+                    RecordMetadata metadata = futures.get(entry.getKey()).get(remaining, TimeUnit.NANOSECONDS).getRecordMetadata();
+                    relayedIds.add(event.getId());
+                    meterRegistry.counter("outbox.relayed", "topic", metadata.topic()).increment();
+                    eventsByKey.get(entry.getKey()).poll();
+                } catch (Exception e) {
+                    if (e instanceof InterruptedException) {
+                        Thread.currentThread().interrupt();
+                    }
+                    meterRegistry.counter("outbox.relay.failures", "topic", event.getTopic()).increment();
+                    customLog.error(CUSTOM_LOG_MARKER, "Failed to relay outbox event {} to {}, holding back {} later events with its key until next poll",
+                            event.getId(), event.getTopic(), eventsByKey.get(entry.getKey()).size() - 1, e);
+                    eventsByKey.get(entry.getKey()).clear();
+                }
+            }
+            eventsByKey.values().removeIf(Deque::isEmpty);
+        }
+
+        if (!relayedIds.isEmpty()) {
+            outboxEventRepository.deleteAllByIdInBatch(relayedIds);
+        }
+        return relayedIds.size();
+    }
+
+    /**
+     * Indexes the oldest marked posts from their current state, keyed by post ID so updates
+     * to one post stay ordered. Posts marked for a full rebuild are sent as whole documents;
+     * the rest are sent as patches carrying only the changed fields. Each mark is settled on
+     * its own: removed once acknowledged, otherwise retried with backoff and dead-lettered after
+     * outbox.index.max-attempts. No transaction is held while waiting for acknowledgements;
+     * the caller must hold the relay lease.
+     *
+     * @param batchSize Maximum number of posts to index.
+     * @return Number of marks read.
+     */
+    public int relayPostIndexBatch(int batchSize) {
+        List<PendingPostIndexView> pending = pendingPostIndexRepository.findNextBatch(batchSize);
+        if (pending.isEmpty()) {
+            return 0;
+        }
+
+        List<Integer> fullIds = new ArrayList<>();
+        Map<Integer, Set<PostIndexChange>> patches = new HashMap<>();
+        for (PendingPostIndexView mark : pending) {
+            Set<PostIndexChange> changes = PostIndexChange.fromBits(mark.getChanges());
+            if (changes.contains(PostIndexChange.FULL)) {
+                fullIds.add(mark.getPostId());
+            } else {
+                patches.put(mark.getPostId(), changes);
+            }
+        }
+
+        Map<Integer, CompletableFuture<SendResult<String, byte[]>>> futures = new HashMap<>();
+        if (!fullIds.isEmpty()) {
+            Map<Integer, String> contents = postContentService.getContents(fullIds);
+            for (Post post : postRepository.findAllByIdIn(fullIds)) {
+                futures.put(post.getId(), sendPostIndex(post.getId(), POST_INDEX_TYPE_ID,
+                        () -> converter.convertToPostIndex(post, contents.getOrDefault(post.getId(), ""))));
+            }
+        }
+        if (!patches.isEmpty()) {
+            for (PostIndexStateView state : postRepository.findIndexStateByIdIn(patches.keySet())) {
+                futures.put(state.getId(), sendPostIndex(state.getId(), POST_INDEX_PATCH_TYPE_ID,
+                        () -> converter.convertToPostIndexPatch(state, patches.get(state.getId()))));
+            }
+        }
+        outboxKafkaTemplate.flush();
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(sendTimeoutSeconds);
+        List<PendingPostIndexView> relayed = new ArrayList<>(pending.size());
+        List<PendingPostIndexView> failed = new ArrayList<>();
+        for (PendingPostIndexView mark : pending) {
+            CompletableFuture<SendResult<String, byte[]>> future = futures.get(mark.getPostId());
+            if (future == null) {
+                // The post was purged, there is nothing left to index.
+                relayed.add(mark);
+                continue;
+            }
+            try {
+                future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                relayed.add(mark);
+            } catch (Exception e) {
+                if (e instanceof InterruptedException) {
+                    Thread.currentThread().interrupt();
+                }
+                failed.add(mark);
+                customLog.warn(CUSTOM_LOG_MARKER, "Failed to index post {}, retrying with backoff", mark.getPostId(), e);
+            }
+        }
+
+        if (!relayed.isEmpty()) {
+            pendingPostIndexRepository.deleteRelayed(postIds(relayed), versions(relayed));
+            meterRegistry.counter("outbox.relayed", "topic", POST_INDEX_TOPIC).increment(relayed.size());
+        }
+        if (!failed.isEmpty()) {
+            List<Integer> deadLettered = pendingPostIndexRepository.markFailed(
+                    postIds(failed), versions(failed), indexRetryDelaySeconds, indexMaxAttempts);
+            meterRegistry.counter("outbox.relay.failures", "topic", POST_INDEX_TOPIC).increment(failed.size());
+            if (!deadLettered.isEmpty()) {
+                meterRegistry.counter("outbox.relay.dead_lettered", "topic", POST_INDEX_TOPIC).increment(deadLettered.size());
+                customLog.error(CUSTOM_LOG_MARKER, "Dead-lettered index marks of posts {} after {} attempts", deadLettered, indexMaxAttempts);
+            }
+        }
+        return pending.size();
+    }
+
+    private CompletableFuture<SendResult<String, byte[]>> send(OutboxEvent event) {
+        ProducerRecord<String, byte[]> record =
+                new ProducerRecord<>(event.getTopic(), event.getMessageKey(),
+                        kafkaPayloadCodec.transcode(event.getTopic(), event.getPayload()));
+        record.headers().add(AbstractJavaTypeMapper.DEFAULT_CLASSID_FIELD_NAME,
+                event.getTypeId().getBytes(StandardCharsets.UTF_8));
+        return kafkaSendMetrics.track(event.getTopic(), outboxKafkaTemplate.send(record));
+    }
+
+    /**
+     * Builds and sends one index message; a post whose message cannot be built fails on its own.
+     */
+    private CompletableFuture<SendResult<String, byte[]>> sendPostIndex(Integer postId, String typeId, Supplier<Object> payload) {
+        try {
+            ProducerRecord<String, byte[]> record =
+                    new ProducerRecord<>(POST_INDEX_TOPIC, postId.toString(), kafkaPayloadCodec.encode(POST_INDEX_TOPIC, payload.get()));
+            record.headers().add(AbstractJavaTypeMapper.DEFAULT_CLASSID_FIELD_NAME, typeId.getBytes(StandardCharsets.UTF_8));
+            return kafkaSendMetrics.track(POST_INDEX_TOPIC, outboxKafkaTemplate.send(record));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private static Integer[] postIds(List<PendingPostIndexView> marks) {
+        return marks.stream().map(PendingPostIndexView::getPostId).toArray(Integer[]::new);
+    }
+
+    private static Long[] versions(List<PendingPostIndexView> marks) {
+        return marks.stream().map(PendingPostIndexView::getVersion).toArray(Long[]::new);
+    }
+
+    private void enqueue(String topic, String key, String typeId, Object payload) {
+        if (key != null) {
+            outboxEventRepository.lockKey(KEY_LOCK_NAMESPACE, topic + ":" + key);
+        }
+        outboxEventRepository.save(OutboxEvent.builder()
+                .topic(topic)
+                .messageKey(key)
+                .typeId(typeId)
+                .payload(serialize(payload))
+                .createdAt(LocalDateTime.now())
+                .build());
+    }
+
+    private double relayLagSeconds() {
+        return outboxEventRepository.findOldestCreatedAt()
+                .map(createdAt -> Duration.between(createdAt, LocalDateTime.now()).toMillis() / 1000.0)
+                .orElse(0.0);
+    }
+
+    private String serialize(Object payload) {
+        try {
+            return payloadMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize " + payload.getClass().getSimpleName(), e);
+        }
+    }
+}
@@ -2,42 +2,113 @@ package com.raul.paste_service.services.postServices;
 
 import com.raul.paste_service.repositories.PostRepository;
 import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import java.security.SecureRandom;
-import java.util.Base64;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Service
 @RequiredArgsConstructor
 public class HashGenerationService {
 
     private final PostRepository postRepository;
-    private static final int HASH_LENGTH = 8;
-    private final SecureRandom sRandom = new SecureRandom();
+    private final HashKeyPoolService hashKeyPoolService;
+    private static final Marker CUSTOM_LOG_MARKER = MarkerFactory.getMarker("CUSTOM_LOGGER");
+    private static final Logger customLog = LoggerFactory.getLogger("CUSTOM_LOGGER");
+    private final Queue<String> localKeys = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger localKeyCount = new AtomicInteger();
+    private final AtomicBoolean refilling = new AtomicBoolean();
+
+    @Value("${hash.pool.local-batch-size:500}")
+    private int localBatchSize;
+
+    @Value("${hash.pool.local-low-watermark:100}")
+    private int localLowWatermark;
 
     /**
-     * Generation unique hash for paste
+     * Generation unique hash for paste.
+     * Hashes come from a node-local buffer of keys claimed from the shared pool, so the
+     * uniqueness check stays off the request path. When the buffer is empty a batch is claimed
+     * in the caller's transaction; the rest of that batch joins the buffer only once it commits.
      *
      * @return Generated hash.
      */
     public String generateUniqueHash() {
-        String hash;
+        String hash = pollLocalKey();
+        if (hash != null) {
+            return hash;
+        }
+
+        List<String> claimed = hashKeyPoolService.claim(localBatchSize);
+        if (!claimed.isEmpty()) {
+            bufferAfterCommit(claimed.subList(1, claimed.size()));
+            return claimed.get(0);
+        }
+
+        customLog.warn(CUSTOM_LOG_MARKER, "Hash pool is empty, falling back to checked random generation");
         do {
-            hash = generateRandomHash();
+            hash = hashKeyPoolService.generateRandomHash();
         } while (hashExists(hash));
 
         return hash;
     }
 
+    private String pollLocalKey() {
+        String hash = localKeys.poll();
+        if (hash != null && localKeyCount.decrementAndGet() < localLowWatermark) {
+            refillInBackground();
+        }
+        return hash;
+    }
+
+    private void refillInBackground() {
+        if (!refilling.compareAndSet(false, true)) {
+            return;
+        }
+
+        hashKeyPoolService.claimAsync(localBatchSize)
+                .whenComplete((hashes, e) -> {
+                    if (e != null) {
+                        customLog.error(CUSTOM_LOG_MARKER, "Failed to claim hashes from the pool", e);
+                    } else {
+                        addLocalKeys(hashes);
+                    }
+                    refilling.set(false);
+                });
+    }
+
     /**
-     * Generate a random hash using Base64.
-     *
-     * @return Random hash.
+     * Hashes claimed in a transaction go back to the pool if it rolls back, where another node could
+     * claim them, so they are only buffered after commit.
      */
-    private String generateRandomHash() {
-        byte[] randomBytes = new byte[HASH_LENGTH];
-        sRandom.nextBytes(randomBytes);
-        return Base64.getUrlEncoder().withoutPadding().encodeToString(randomBytes);
+    private void bufferAfterCommit(List<String> hashes) {
+        List<String> batch = List.copyOf(hashes);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            addLocalKeys(batch);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                addLocalKeys(batch);
+            }
+        });
+    }
+
+    private void addLocalKeys(List<String> hashes) {
+        localKeys.addAll(hashes);
+        localKeyCount.addAndGet(hashes.size());
     }
 
     /**
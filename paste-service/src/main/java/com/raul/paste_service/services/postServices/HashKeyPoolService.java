@@ -0,0 +1,117 @@
+package com.raul.paste_service.services.postServices;
+
+import com.raul.common.jobs.JobCoordinator;
+import com.raul.paste_service.repositories.HashKeyRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Shared pool of pre-generated post hashes kept in the hash_keys table.
+ * Nodes claim disjoint batches with SKIP LOCKED, so no two nodes ever hand out the same hash.
+ * One replica at a time replenishes the pool.
+ */
+@Service
+@RequiredArgsConstructor
+@EnableAsync
+public class HashKeyPoolService {
+
+    private final HashKeyRepository hashKeyRepository;
+    private final JobCoordinator jobCoordinator;
+    private static final Marker CUSTOM_LOG_MARKER = MarkerFactory.getMarker("CUSTOM_LOGGER");
+    private static final Logger customLog = LoggerFactory.getLogger("CUSTOM_LOGGER");
+    private static final int HASH_LENGTH = 8;
+    private final SecureRandom sRandom = new SecureRandom();
+
+    @Value("${hash.pool.min-size:10000}")
+    private long minPoolSize;
+
+    @Value("${hash.pool.generate-batch-size:1000}")
+    private int generateBatchSize;
+
+    @Value("${hash.pool.refill.delay.millis:10000}")
+    private long refillDelayMillis;
+
+    /**
+     * Tops the shared pool up to its minimum size.
+     */
+    @Scheduled(fixedDelayString = "${hash.pool.refill.delay.millis:10000}")
+    public void replenishPool() {
+        jobCoordinator.runExclusive("paste.replenish-hash-pool", Duration.ofMillis(refillDelayMillis / 2), this::replenish);
+    }
+
+    private void replenish(JobCoordinator.JobRun run) {
+        long available = hashKeyRepository.count();
+        if (available >= minPoolSize) {
+            return;
+        }
+
+        customLog.info(CUSTOM_LOG_MARKER, "Hash pool has {} keys, replenishing up to {}", available, minPoolSize);
+
+        long inserted = 0;
+        while (available + inserted < minPoolSize) {
+            run.checkpoint();
+            inserted += hashKeyRepository.insertAll(generateRandomHashes(generateBatchSize));
+        }
+
+        customLog.info(CUSTOM_LOG_MARKER, "Added {} keys to the hash pool", inserted);
+    }
+
+    /**
+     * Claims a batch of unused hashes in the background, in a transaction of its own.
+     *
+     * @param size Number of hashes to claim.
+     * @return Claimed hashes, possibly fewer than requested when the pool runs low.
+     */
+    @Async
+    public CompletableFuture<List<String>> claimAsync(int size) {
+        return CompletableFuture.completedFuture(hashKeyRepository.claimBatch(size));
+    }
+
+    /**
+     * Claims a batch of unused hashes in the caller's transaction, so the create path holds a single
+     * connection. If that transaction rolls back the hashes return to the pool; callers must not keep
+     * them beyond the transaction unless it commits.
+     *
+     * @param size Number of hashes to claim.
+     * @return Claimed hashes, possibly fewer than requested when the pool runs low.
+     */
+    @Transactional
+    public List<String> claim(int size) {
+        return hashKeyRepository.claimBatch(size);
+    }
+
+    /**
+     * Generate a random hash using Base64.
+     *
+     * @return Random hash.
+     */
+    public String generateRandomHash() {
+        byte[] randomBytes = new byte[HASH_LENGTH];
+        sRandom.nextBytes(randomBytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(randomBytes);
+    }
+
+    private List<String> generateRandomHashes(int count) {
+        List<String> hashes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            hashes.add(generateRandomHash());
+        }
+        return hashes;
+    }
+}
@@ -0,0 +1,131 @@
+package com.raul.paste_service.services.postServices;
+
+import com.raul.paste_service.models.Post;
+import com.raul.paste_service.models.PostContent;
+import com.raul.paste_service.repositories.PostContentRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Reads and writes post bodies, which live in post_contents rather than on the posts row.
+ * Only the paths that return or index the full post should load them. Bodies above the
+ * size threshold are stored gzip-compressed when that makes them smaller.
+ */
+@Service
+@RequiredArgsConstructor
+public class PostContentService {
+
+    public static final String IDENTITY = "identity";
+    public static final String GZIP = "gzip";
+
+    private final PostContentRepository postContentRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${posts.content.compression.min-bytes:1024}")
+    private int compressionMinBytes;
+
+    /**
+     * Stores the body of a new post in the current transaction.
+     *
+     * @param post    Post being created.
+     * @param content Body of the post.
+     */
+    public void create(Post post, String content) {
+        PostContent.PostContentBuilder postContent = PostContent.builder()
+                .post(post)
+                .encoding(IDENTITY)
+                .content(content);
+
+        byte[] raw = content.getBytes(StandardCharsets.UTF_8);
+        if (raw.length >= compressionMinBytes) {
+            byte[] compressed = codecTimer("compress").record(() -> gzip(raw));
+            meterRegistry.summary("posts.content.compression.ratio").record((double) compressed.length / raw.length);
+            if (compressed.length < raw.length) {
+                postContent.encoding(GZIP).content(null).compressedContent(compressed);
+            }
+        }
+
+        postContentRepository.save(postContent.build());
+    }
+
+    /**
+     * @param postId ID of the post.
+     * @return Body of the post, or an empty string if it has none.
+     */
+    public String getContent(Integer postId) {
+        return findStored(postId).map(this::decode).orElse("");
+    }
+
+    /**
+     * Loads the bodies of any number of posts in one query.
+     *
+     * @param postIds IDs of the posts.
+     * @return Bodies by post ID.
+     */
+    public Map<Integer, String> getContents(Collection<Integer> postIds) {
+        if (postIds.isEmpty()) {
+            return Map.of();
+        }
+
+        return postContentRepository.findAllByPostIdIn(postIds.toArray(Integer[]::new)).stream()
+                .collect(Collectors.toMap(PostContent::getPostId, this::decode));
+    }
+
+    /**
+     * @param postId ID of the post.
+     * @return Body of the post as stored, for serving compressed bodies without decompressing them.
+     */
+    public Optional<PostContent> findStored(Integer postId) {
+        return postContentRepository.findById(postId);
+    }
+
+    /**
+     * @param postContent Stored body.
+     * @return Body as text.
+     */
+    public String decode(PostContent postContent) {
+        if (!GZIP.equals(postContent.getEncoding())) {
+            return postContent.getContent();
+        }
+
+        byte[] raw = codecTimer("decompress").record(() -> gunzip(postContent.getCompressedContent()));
+        return new String(raw, StandardCharsets.UTF_8);
+    }
+
+    private Timer codecTimer(String operation) {
+        return meterRegistry.timer("posts.content.codec", "operation", operation, "encoding", GZIP);
+    }
+
+    static byte[] gzip(byte[] raw) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 2);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(raw);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    static byte[] gunzip(byte[] compressed) {
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return gzip.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
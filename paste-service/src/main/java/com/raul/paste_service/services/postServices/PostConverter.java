@@ -1,17 +1,21 @@
 package com.raul.paste_service.services.postServices;
 
+import com.raul.paste_service.dto.post.PostCacheEntry;
+import com.raul.paste_service.dto.post.PostIndexChange;
 import com.raul.paste_service.dto.post.PostIndexDto;
+import com.raul.paste_service.dto.post.PostIndexPatchDto;
+import com.raul.paste_service.dto.post.PostIndexStateView;
 import com.raul.paste_service.dto.post.PostRequestDto;
 import com.raul.paste_service.dto.post.PostResponseDto;
+import com.raul.paste_service.dto.post.PostSummaryDto;
+import com.raul.paste_service.dto.post.PostSummaryView;
 import com.raul.paste_service.dto.tag.TagResponseDto;
 import com.raul.paste_service.models.Post;
 import com.raul.paste_service.models.Tag;
-import com.raul.paste_service.repositories.PostLikeRepository;
-import com.raul.paste_service.repositories.PostRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.text.Normalizer;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -20,11 +24,16 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class PostConverter {
 
-    private final PostLikeRepository postLikeRepository;
     private final HashGenerationService hashGenerationService;
-    private final PostRepository postRepository;
+    private final SlugGenerationService slugGenerationService;
 
-    public Post convertToPost(PostRequestDto request, Integer userId) {
+    @Value("${cache.posts.max-content-chars:8192}")
+    private int maxCachedContentChars;
+
+    @Value("${search.index.max-content-chars:10000}")
+    private int maxIndexedContentChars;
+
+    public Post convertToPost(PostRequestDto request, Integer userId, boolean resyncSlug) {
 
         LocalDateTime expirationDate = request.expirationDate();
         LocalDateTime expiresAt = request.expirationDate() != null
@@ -33,8 +42,9 @@ public class PostConverter {
 
         return Post.builder()
                 .title(request.title())
-                .slug(generateUniqueSlug(request.slug()))
-                .content(request.content())
+                .slug(slugGenerationService.generateUniqueSlug(
+                        request.slug() != null && !request.slug().isBlank() ? request.slug() : request.title(),
+                        resyncSlug))
                 .summary(request.summary())
                 .tags(new HashSet<>())
                 .hash(hashGenerationService.generateUniqueHash())
@@ -45,40 +55,99 @@ public class PostConverter {
                 .expiresAt(expiresAt)
                 .isDeleted(false)
                 .likes(new ArrayList<>())
+                .likesCount(0)
+                .gradeSum(0)
+                .gradeCount(0)
                 .viewsCount(0)
+                .uniqueViewersCount(0)
                 .indexedAt(LocalDateTime.now())
                 .deletedAt(null)
                 .build();
     }
 
-    public PostResponseDto convertToPostResponse(Post post) {
+    public PostResponseDto convertToPostResponse(Post post, String content) {
         return PostResponseDto.builder()
                 .title(post.getTitle())
                 .slug(post.getSlug())
-                .content(post.getContent())
+                .content(content)
                 .summary(post.getSummary())
                 .tags(convertToTagResponse(post.getTags()))
                 .userId(post.getUserId())
                 .rating(post.getRating())
-                .likesCount(postLikeRepository.countLikesByPostId(post.getId()))
+                .likesCount(post.getLikesCount())
+                .viewsCount(post.getViewsCount())
+                .uniqueViewersCount(post.getUniqueViewersCount())
+                .expirationDate(post.getExpiresAt())
+                .hash(post.getHash())
+                .build();
+    }
+
+    public PostSummaryDto convertToPostSummary(PostSummaryView post, List<String> tagNames) {
+        return PostSummaryDto.builder()
+                .title(post.getTitle())
+                .slug(post.getSlug())
+                .summary(post.getSummary())
+                .tags(tagNames.stream().map(TagResponseDto::new).toList())
+                .userId(post.getUserId())
+                .rating(post.getRating())
+                .likesCount(post.getLikesCount())
                 .viewsCount(post.getViewsCount())
+                .uniqueViewersCount(post.getUniqueViewersCount())
                 .expirationDate(post.getExpiresAt())
                 .hash(post.getHash())
                 .build();
     }
 
+    public PostIndexPatchDto convertToPostIndexPatch(PostIndexStateView post, Set<PostIndexChange> changes) {
+        boolean status = changes.contains(PostIndexChange.STATUS);
+        boolean counters = changes.contains(PostIndexChange.COUNTERS);
+        return new PostIndexPatchDto(
+                PostIndexDto.SCHEMA_VERSION,
+                post.getId(),
+                changes,
+                status ? post.getIsDeleted() : null,
+                status ? post.getExpiresAt() : null,
+                status ? post.getUpdatedAt() : null,
+                counters ? post.getLikesCount() : null,
+                counters ? post.getViewsCount() : null,
+                changes.contains(PostIndexChange.RATING) ? post.getRating() : null
+        );
+    }
+
+    /**
+     * Builds the cache entry of a post. Bodies over cache.posts.max-content-chars are left out,
+     * so large pastes do not crowd the cache tiers; they are read from storage when served.
+     */
+    public PostCacheEntry convertToPostCacheEntry(Post post, String content) {
+        boolean contentOmitted = content != null && content.length() > maxCachedContentChars;
+        return new PostCacheEntry(
+                post.getId(),
+                post.getHash(),
+                post.getSlug(),
+                post.getUserId(),
+                post.getExpiresAt(),
+                convertToPostResponse(post, contentOmitted ? null : content),
+                contentOmitted
+        );
+    }
+
     public List<TagResponseDto> convertToTagResponse(Set<Tag> tags) {
         return tags.stream()
                 .map(tag -> new TagResponseDto(tag.getName()))
                 .collect(Collectors.toList());
     }
 
-    public PostIndexDto convertToPostIndex(Post post) {
+    /**
+     * Builds the index document of a post. Only the first search.index.max-content-chars of the body
+     * are indexed, which bounds the Kafka payload and the document size in Elasticsearch.
+     */
+    public PostIndexDto convertToPostIndex(Post post, String content) {
         return new PostIndexDto(
+                PostIndexDto.SCHEMA_VERSION,
                 post.getId(),
                 post.getTitle(),
                 post.getSlug(),
-                post.getContent(),
+                truncate(content, maxIndexedContentChars),
                 post.getSummary(),
                 post.getTags().stream()
                         .map(Tag::getName)
@@ -86,7 +155,7 @@ public class PostConverter {
                 post.getHash(),
                 post.getUserId(),
                 post.getRating(),
-                postLikeRepository.countLikesByPostId(post.getId()),
+                post.getLikesCount(),
                 post.getViewsCount(),
                 post.getCreatedAt(),
                 post.getUpdatedAt(),
@@ -95,34 +164,11 @@ public class PostConverter {
         );
     }
 
-    private String generateUniqueSlug(String title) {
-        String normalized = Normalizer.normalize(title, Normalizer.Form.NFD)
-                .replaceAll("\\p{InCombiningDiacriticalMarks}+", "");
-
-        String baseSlug = normalized.toLowerCase()
-                .replaceAll("[^a-z\\d\\s-]", "")
-                .replaceAll("\\s+", "-")
-                .replaceAll("-{2,}", "-")
-                .replaceAll("^-|-$", "");
-
-        int suffix = 1;
-        String slug;
-
-        int maxSlugLength = 100;
-
-        while (true) {
-            String suffixStr = "-" + suffix;
-            int maxBaseLength = maxSlugLength - suffixStr.length();
-            String trimmedBase = baseSlug.length() > maxBaseLength ? baseSlug.substring(0, maxBaseLength) : baseSlug;
-            slug = trimmedBase + suffixStr;
-
-            if (!postRepository.existsBySlug(slug)) {
-                break;
-            }
-
-            suffix++;
+    private static String truncate(String value, int maxChars) {
+        if (value == null || value.length() <= maxChars) {
+            return value;
         }
-
-        return slug;
+        int end = Character.isHighSurrogate(value.charAt(maxChars - 1)) ? maxChars - 1 : maxChars;
+        return value.substring(0, end);
     }
 }
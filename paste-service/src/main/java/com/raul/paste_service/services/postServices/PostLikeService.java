@@ -1,10 +1,15 @@
 package com.raul.paste_service.services.postServices;
 
-import com.raul.paste_service.dto.post.PostResponseDto;
+import com.raul.paste_service.dto.post.PostCursor;
+import com.raul.paste_service.dto.post.PostIndexChange;
+import com.raul.paste_service.dto.post.PostKeysetView;
+import com.raul.paste_service.dto.post.PostListView;
 import com.raul.paste_service.models.PostLike;
 import com.raul.paste_service.repositories.PostLikeRepository;
 import com.raul.paste_service.repositories.PostRepository;
 import com.raul.paste_service.services.UserAccessService;
+import com.raul.paste_service.services.outboxServices.OutboxService;
+import com.raul.paste_service.services.schedulerServices.PostRatingService;
 import com.raul.paste_service.utils.exceptions.PostNotFoundException;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
@@ -15,10 +20,10 @@ import org.slf4j.MarkerFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -26,10 +31,12 @@ public class PostLikeService {
 
     private final PostLikeRepository postLikeRepository;
     private final PostRepository postRepository;
-    private final PostConverter postConverter;
+    private final PostPageService postPageService;
     private static final Marker CUSTOM_LOG_MARKER = MarkerFactory.getMarker("CUSTOM_LOGGER");
     private static final Logger customLog = LoggerFactory.getLogger("CUSTOM_LOGGER");
     private final UserAccessService userAccessService;
+    private final PostRatingService postRatingService;
+    private final OutboxService outboxService;
 
     /**
      * Adds a like to the post by its ID.
@@ -38,6 +45,7 @@ public class PostLikeService {
      * @param userId ID of the user who likes the post.
      * @return ResponseEntity with status CREATED if successful.
      */
+    @Transactional
     public ResponseEntity<Void> likePost(Integer postId, String userId) {
         customLog.info(CUSTOM_LOG_MARKER, "User {} is attempting to like post {}", userId, postId);
 
@@ -59,6 +67,9 @@ public class PostLikeService {
                 .build();
 
         postLikeRepository.save(like);
+        postRepository.adjustLikesCount(postId, 1);
+        postRatingService.refreshRatings(List.of(postId));
+        outboxService.enqueuePostIndex(postId, PostIndexChange.COUNTERS, PostIndexChange.RATING);
         customLog.info(CUSTOM_LOG_MARKER, "User {} successfully liked post {}", userId, postId);
 
         return new ResponseEntity<>(HttpStatus.CREATED);
@@ -71,43 +82,49 @@ public class PostLikeService {
      * @param userId ID of the user who unlikes the post.
      * @return ResponseEntity with status OK if successful.
      */
+    @Transactional
     public ResponseEntity<Void> unlikePost(Integer postId, String userId) {
         customLog.info(CUSTOM_LOG_MARKER, "User {} is attempting to unlike post {}", userId, postId);
 
-        var like = postLikeRepository.findByPost_IdAndUserId(postId, Integer.parseInt(userId))
-                .orElseThrow(() -> {
-                    customLog.warn(CUSTOM_LOG_MARKER, "Like not found for user {} on post {}", userId, postId);
-                    return new EntityNotFoundException("Like not found");
-                });
+        if (postLikeRepository.deleteByPostIdAndUserId(postId, Integer.parseInt(userId)) == 0) {
+            customLog.warn(CUSTOM_LOG_MARKER, "Like not found for user {} on post {}", userId, postId);
+            throw new EntityNotFoundException("Like not found");
+        }
 
-        postLikeRepository.delete(like);
+        postRepository.adjustLikesCount(postId, -1);
+        postRatingService.refreshRatings(List.of(postId));
+        outboxService.enqueuePostIndex(postId, PostIndexChange.COUNTERS, PostIndexChange.RATING);
         customLog.info(CUSTOM_LOG_MARKER, "User {} successfully unliked post {}", userId, postId);
 
         return new ResponseEntity<>(HttpStatus.OK);
     }
 
     /**
-     * Retrieves all posts liked by a specific user.
+     * Retrieves one page of the posts liked by a specific user, most recently liked first.
      *
-     * @param pathUserId ID of the user.
-     * @return List of liked posts.
+     * @param pathUserId   ID of the user.
+     * @param cursor       Continuation token of the page, or null for the first page.
+     * @param size         Requested page size.
+     * @param includeTotal Whether to count all of the user's likes.
+     * @param view         Shape of the items.
+     * @return Page of liked posts.
      */
-    public ResponseEntity<List<PostResponseDto>> getLikedPostsByUser(Integer pathUserId, String headerUserId) {
+    public ResponseEntity<List<?>> getLikedPostsByUser(Integer pathUserId, String headerUserId, String cursor,
+                                                      Integer size, boolean includeTotal, PostListView view) {
         customLog.info(CUSTOM_LOG_MARKER, "Fetching liked posts for user {}", pathUserId);
 
         userAccessService.userAccessCheck(pathUserId, headerUserId);
 
-        var likedPosts = postLikeRepository.findByUserId(pathUserId);
+        int pageSize = postPageService.pageSize(size);
+        PostCursor after = PostCursor.decode(cursor);
+        List<PostKeysetView> keys = postLikeRepository.findPageByUserId(pathUserId, after.createdAt(), after.id(), pageSize + 1);
 
-        if (likedPosts.isEmpty()) {
+        if (keys.isEmpty() && after.equals(PostCursor.START)) {
             customLog.warn(CUSTOM_LOG_MARKER, "No liked post found for user with ID {}", pathUserId);
             throw new PostNotFoundException("Posts not found");
         }
 
-        List<PostResponseDto> likedPostsDto = likedPosts.stream()
-                .map(postLike -> postConverter.convertToPostResponse(postLike.getPost()))
-                .collect(Collectors.toList());
-
-        return new ResponseEntity<>(likedPostsDto, HttpStatus.OK);
+        return postPageService.toPage(keys, pageSize,
+                includeTotal ? () -> postLikeRepository.countByUserId(pathUserId) : null, view);
     }
 }
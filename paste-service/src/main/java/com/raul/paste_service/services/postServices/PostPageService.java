@@ -0,0 +1,110 @@
+package com.raul.paste_service.services.postServices;
+
+import com.raul.paste_service.dto.post.PostCursor;
+import com.raul.paste_service.dto.post.PostKeysetView;
+import com.raul.paste_service.dto.post.PostListView;
+import com.raul.paste_service.dto.post.PostSummaryView;
+import com.raul.paste_service.dto.post.PostTagView;
+import com.raul.paste_service.models.Post;
+import com.raul.paste_service.repositories.PostRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+/**
+ * Builds keyset-paginated post listings. Pages are returned as a plain list; the continuation token
+ * of the next page and, on request, the total count travel in the X-Next-Cursor and X-Total-Count headers.
+ * The summary view reads only the listing columns and tag names, never the post content.
+ */
+@Service
+@RequiredArgsConstructor
+public class PostPageService {
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+
+    private final PostRepository postRepository;
+    private final PostConverter converter;
+    private final PostContentService postContentService;
+
+    @Value("${posts.page.default-size:20}")
+    private int defaultPageSize;
+
+    @Value("${posts.page.max-size:100}")
+    private int maxPageSize;
+
+    /**
+     * @param requested Page size asked for by the client, or null.
+     * @return Page size within the configured cap.
+     */
+    public int pageSize(Integer requested) {
+        if (requested == null || requested < 1) {
+            return defaultPageSize;
+        }
+        return Math.min(requested, maxPageSize);
+    }
+
+    /**
+     * Turns one page of keys into the response. The keys are expected to be fetched with a limit
+     * of pageSize + 1, so an extra row means there is a next page.
+     *
+     * @param keys     Keys of the page, in listing order.
+     * @param pageSize Requested page size.
+     * @param total    Count of all rows in the listing, or null if the client did not ask for it.
+     * @param view     Shape of the items.
+     * @return Posts of the page with the pagination headers.
+     */
+    public ResponseEntity<List<?>> toPage(List<PostKeysetView> keys, int pageSize, LongSupplier total, PostListView view) {
+        HttpHeaders headers = new HttpHeaders();
+        if (keys.size() > pageSize) {
+            keys = keys.subList(0, pageSize);
+            headers.add(NEXT_CURSOR_HEADER, PostCursor.of(keys.get(pageSize - 1)).encode());
+        }
+        if (total != null) {
+            headers.add(TOTAL_COUNT_HEADER, String.valueOf(total.getAsLong()));
+        }
+
+        List<Integer> postIds = keys.stream().map(PostKeysetView::getPostId).toList();
+        List<?> page = postIds.isEmpty()
+                ? List.of()
+                : view == PostListView.SUMMARY ? loadSummaries(postIds) : loadPosts(postIds);
+
+        return new ResponseEntity<>(page, headers, HttpStatus.OK);
+    }
+
+    private List<?> loadPosts(List<Integer> postIds) {
+        Map<Integer, Post> posts = postRepository.findAllByIdIn(postIds).stream()
+                .collect(Collectors.toMap(Post::getId, Function.identity()));
+        Map<Integer, String> contents = postContentService.getContents(postIds);
+
+        return postIds.stream()
+                .map(posts::get)
+                .filter(Objects::nonNull)
+                .map(post -> converter.convertToPostResponse(post, contents.getOrDefault(post.getId(), "")))
+                .toList();
+    }
+
+    private List<?> loadSummaries(List<Integer> postIds) {
+        Map<Integer, PostSummaryView> posts = postRepository.findSummariesByIdIn(postIds).stream()
+                .collect(Collectors.toMap(PostSummaryView::getId, Function.identity()));
+        Map<Integer, List<String>> tagNames = postRepository.findTagNamesByPostIdIn(postIds).stream()
+                .collect(Collectors.groupingBy(PostTagView::getPostId,
+                        Collectors.mapping(PostTagView::getName, Collectors.toList())));
+
+        return postIds.stream()
+                .map(posts::get)
+                .filter(Objects::nonNull)
+                .map(post -> converter.convertToPostSummary(post, tagNames.getOrDefault(post.getId(), List.of())))
+                .toList();
+    }
+}
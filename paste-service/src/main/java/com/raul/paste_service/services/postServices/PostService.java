@@ -1,30 +1,39 @@
 package com.raul.paste_service.services.postServices;
 
 
+import com.raul.paste_service.dto.post.PostCacheEntry;
+import com.raul.paste_service.dto.post.PostCursor;
+import com.raul.paste_service.dto.post.PostExpiryView;
+import com.raul.paste_service.dto.post.PostIndexChange;
+import com.raul.paste_service.dto.post.PostKeysetView;
+import com.raul.paste_service.dto.post.PostListView;
 import com.raul.paste_service.dto.post.PostRequestDto;
 import com.raul.paste_service.dto.post.PostResponseDto;
 import com.raul.paste_service.dto.post.RestorePostDto;
+import com.raul.paste_service.dto.post.RestoredPostsDto;
 import com.raul.paste_service.models.Post;
-import com.raul.paste_service.models.Tag;
+import com.raul.paste_service.models.PostContent;
 import com.raul.paste_service.repositories.PostRepository;
-import com.raul.paste_service.repositories.TagRepository;
 import com.raul.paste_service.services.UserAccessService;
-import com.raul.paste_service.services.kafkaServices.KafkaProducer;
+import com.raul.paste_service.services.cacheServices.PostCacheService;
+import com.raul.paste_service.services.outboxServices.OutboxService;
+import com.raul.paste_service.services.schedulerServices.PostExpiryScheduler;
+import com.raul.paste_service.utils.AcceptEncodingUtils;
 import com.raul.paste_service.utils.exceptions.PostNotFoundException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.ws.rs.BadRequestException;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.*;
-import org.springframework.cache.Cache;
-import org.springframework.cache.CacheManager;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.time.Duration;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -34,42 +43,74 @@ import java.util.stream.Collectors;
 public class PostService {
     private final PostRepository postRepository;
     private final PostConverter converter;
+    private final PostContentService postContentService;
     private static final Marker CUSTOM_LOG_MARKER = MarkerFactory.getMarker("CUSTOM_LOGGER");
     private static final Logger customLog = LoggerFactory.getLogger("CUSTOM_LOGGER");
-    private final TagRepository tagRepository;
-    private final KafkaProducer kafkaProducer;
-    private static final String POSTS_CACHE = "posts::";
-    private final RedisTemplate<String, Post> redisTemplate;
-    private final CacheManager cacheManager;
+    private final TagDictionary tagDictionary;
+    private final OutboxService outboxService;
+    private final PostCacheService postCacheService;
     private final PostViewService postViewService;
     private final UserAccessService userAccessService;
+    private final PostExpiryScheduler postExpiryScheduler;
+    private final PostPageService postPageService;
+    private final TransactionTemplate transactionTemplate;
+    private static final String SLUG_CONSTRAINT = "posts_slug_key";
+    private static final int MAX_CREATE_ATTEMPTS = 3;
 
     /**
      * Creates a new post and saves it to the database.
+     * A slug conflict rolls the attempt back and retries it with a resynchronized slug counter.
      *
      * @param request Post request DTO.
      * @return ResponseEntity with created PostResponseDto.
      */
-    @Transactional
     public ResponseEntity<PostResponseDto> create(PostRequestDto request, String userId) {
+        for (int attempt = 1; ; attempt++) {
+            boolean resyncSlug = attempt > 1;
+            try {
+                return transactionTemplate.execute(status -> createPost(request, userId, resyncSlug));
+            } catch (DataIntegrityViolationException e) {
+                if (attempt >= MAX_CREATE_ATTEMPTS || !isSlugConflict(e)) {
+                    throw e;
+                }
+                customLog.warn(CUSTOM_LOG_MARKER, "Slug conflict on attempt {} of creating a post, retrying", attempt);
+            }
+        }
+    }
+
+    private ResponseEntity<PostResponseDto> createPost(PostRequestDto request, String userId, boolean resyncSlug) {
         customLog.info(CUSTOM_LOG_MARKER, "Creating new post");
 
-        Post post = converter.convertToPost(request, Integer.parseInt(userId));
+        Post post = converter.convertToPost(request, Integer.parseInt(userId), resyncSlug);
 
-        postRepository.save(post);
+        customLog.info(CUSTOM_LOG_MARKER, "Resolving tags");
+        if (request.tags() != null && !request.tags().isEmpty()) {
+            post.getTags().addAll(tagDictionary.resolve(request.tags()));
+        }
 
-        customLog.info(CUSTOM_LOG_MARKER, "Saving tags");
-        savePostTags(post, request.tags());
+        postRepository.saveAndFlush(post);
+        postContentService.create(post, request.content());
+        postExpiryScheduler.schedule(post.getId(), post.getExpiresAt());
 
-        PostResponseDto postResponse = converter.convertToPostResponse(post);
+        PostResponseDto postResponse = converter.convertToPostResponse(post, request.content());
+        postCacheService.evict(post.getId());
 
         customLog.info(CUSTOM_LOG_MARKER, "Sending to search-service");
-        kafkaProducer.sendMessageToPostIndexTopic(converter.convertToPostIndex(post));
+        outboxService.enqueuePostIndex(post.getId(), PostIndexChange.FULL);
 
         customLog.info(CUSTOM_LOG_MARKER, "Post created with ID: {}", post.getId());
         return new ResponseEntity<>(postResponse, HttpStatus.CREATED);
     }
 
+    private static boolean isSlugConflict(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause.getMessage() != null && cause.getMessage().contains(SLUG_CONSTRAINT)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Retrieves a post
      *
@@ -79,28 +120,22 @@ public class PostService {
      * @return ResponseEntity with the found PostResponseDto
      */
     public ResponseEntity<PostResponseDto> getPost(Integer postId, String hash, String slug, HttpServletRequest request) {
-        Post post;
+        PostCacheEntry post;
 
         if (postId != null) {
-            post = redisTemplate.opsForValue().get(POSTS_CACHE + postId);
-            if (post == null) {
-                post = postRepository.findByIdAndIsDeletedFalse(postId)
-                        .orElseThrow(() -> new PostNotFoundException("Post not found"));
-            }
+            post = postCacheService.getById(postId);
         } else if (hash != null) {
-            post = postRepository.findByHashAndIsDeletedFalse(hash)
-                    .orElseThrow(() -> new PostNotFoundException("Post not found"));
+            post = postCacheService.getByHash(hash);
         } else if (slug != null) {
-            post = postRepository.findBySlugAndIsDeletedFalse(slug)
-                    .orElseThrow(() -> new PostNotFoundException("Post not found"));
+            post = postCacheService.getBySlug(slug);
         } else {
             throw new BadRequestException("At least one identifier (id, hash, slug) must be provided");
         }
 
         Integer userId = getUserIdHeader(request);
-        postViewService.handleView(post.getId(), userId, request);
+        postViewService.handleView(post.id(), post.userId(), userId, request);
 
-        return new ResponseEntity<>(converter.convertToPostResponse(post), HttpStatus.OK);
+        return new ResponseEntity<>(postCacheService.responseOf(post), HttpStatus.OK);
     }
 
     /**
@@ -114,13 +149,41 @@ public class PostService {
 
         Integer userId = getUserIdHeader(request);
 
-        var post = postRepository.findByHashAndIsDeletedFalse(hash)
-                    .orElseThrow(() -> new PostNotFoundException("Post not found"));
+        PostCacheEntry post = postCacheService.getByHash(hash);
+
+        postViewService.handleView(post.id(), post.userId(), userId, request);
+
+        return new ResponseEntity<>(postCacheService.responseOf(post), HttpStatus.OK);
+    }
+
+    /**
+     * Retrieves the body of a post by its hash as plain text. A body stored compressed is sent
+     * as stored, with Content-Encoding, when the client accepts gzip.
+     *
+     * @param hash           Hash to search for.
+     * @param acceptEncoding Accept-Encoding header of the request.
+     * @return ResponseEntity with the body of the post.
+     */
+    public ResponseEntity<byte[]> getRawPostByHash(String hash, String acceptEncoding, HttpServletRequest request) {
+        customLog.info(CUSTOM_LOG_MARKER, "Received request to find raw post by hash: {}", hash);
+
+        PostCacheEntry post = postCacheService.getByHash(hash);
+        PostContent content = postContentService.findStored(post.id())
+                .orElseThrow(() -> new PostNotFoundException("Post not found"));
+
+        Integer userId = getUserIdHeader(request);
+        postViewService.handleView(post.id(), post.userId(), userId, request);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8));
+        headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
 
-        postViewService.handleView(post.getId(), userId, request);
+        if (PostContentService.GZIP.equals(content.getEncoding()) && AcceptEncodingUtils.accepts(acceptEncoding, PostContentService.GZIP)) {
+            headers.add(HttpHeaders.CONTENT_ENCODING, PostContentService.GZIP);
+            return new ResponseEntity<>(content.getCompressedContent(), headers, HttpStatus.OK);
+        }
 
-        PostResponseDto postResponseDto = converter.convertToPostResponse(post);
-        return new ResponseEntity<>(postResponseDto, HttpStatus.OK);
+        return new ResponseEntity<>(postContentService.decode(content).getBytes(StandardCharsets.UTF_8), headers, HttpStatus.OK);
     }
 
     /**
@@ -132,16 +195,13 @@ public class PostService {
     public ResponseEntity<PostResponseDto> getPostBySlug(String slug, HttpServletRequest request) {
         customLog.info(CUSTOM_LOG_MARKER, "Received request to find post by slug: {}", slug);
 
-        var post = postRepository.findBySlugAndIsDeletedFalse(slug)
-                .orElseThrow(() -> new PostNotFoundException("Post not found"));
-
-        PostResponseDto postResponseDto = converter.convertToPostResponse(post);
+        PostCacheEntry post = postCacheService.getBySlug(slug);
 
         Integer userId = getUserIdHeader(request);
 
-        postViewService.handleView(post.getId(), userId, request);
+        postViewService.handleView(post.id(), post.userId(), userId, request);
 
-        return new ResponseEntity<>(postResponseDto, HttpStatus.OK);
+        return new ResponseEntity<>(postCacheService.responseOf(post), HttpStatus.OK);
     }
 
     /**
@@ -150,7 +210,6 @@ public class PostService {
      * @param postId The ID of the post to delete.
      * @return ResponseEntity with status NO_CONTENT if deletion is successful, CONFLICT if post is already deleted.
      */
-    @CacheEvict(value = POSTS_CACHE, key = "#postId")
     @Transactional
     public ResponseEntity<Void> deletePost(Integer postId, String userId) {
         customLog.info(CUSTOM_LOG_MARKER, "Received request to delete post by post ID: {}", postId);
@@ -168,9 +227,10 @@ public class PostService {
         post.setIsDeleted(true);
         post.setDeletedAt(LocalDateTime.now());
         postRepository.save(post);
+        postCacheService.evict(postId);
 
         customLog.info(CUSTOM_LOG_MARKER, "Sending to search-service for updating in posts index");
-        kafkaProducer.sendMessageToPostIndexTopic(converter.convertToPostIndex(post));
+        outboxService.enqueuePostIndex(post.getId(), PostIndexChange.STATUS);
 
         customLog.info(CUSTOM_LOG_MARKER, "Post with ID: {} marked as deleted", postId);
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
@@ -188,139 +248,106 @@ public class PostService {
 
         userAccessService.userAccessCheck(pathUserId, headerUserId);
 
-        List<Post> posts = postRepository.findAllByUserId(pathUserId);
-        if (posts.isEmpty()) {
+        List<Integer> postIds = postRepository.markAsDeletedAllByUserId(pathUserId, LocalDateTime.now());
+        if (postIds.isEmpty() && !postRepository.existsByUserId(pathUserId)) {
             customLog.warn(CUSTOM_LOG_MARKER, "No posts found for user ID: {}", pathUserId);
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
 
-        Cache cache = cacheManager.getCache(POSTS_CACHE);
-        if (cache != null) {
-            posts.forEach(post -> cache.evict(post.getId()));
-        }
-
-        posts.forEach(post -> {
-            post.setIsDeleted(true);
-            post.setDeletedAt(LocalDateTime.now());
-        });
-
-        postRepository.saveAll(posts);
+        postCacheService.evictAll(postIds);
 
         customLog.info(CUSTOM_LOG_MARKER, "Sending to search-service for updating in posts index");
-        posts.stream()
-                .map(converter::convertToPostIndex)
-                .forEach(kafkaProducer::sendMessageToPostIndexTopic);
+        outboxService.enqueuePostIndexAll(postIds, PostIndexChange.STATUS);
 
         customLog.info(CUSTOM_LOG_MARKER, "Posts with user ID: {} marked as deleted", pathUserId);
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
 
-    /**
-     * Saves tags to the post.
-     * If the tag does not exist, it will be created and added to the post.
-     *
-     * @param post The post to which the tags will be saved.
-     * @param tagNames List of tag names to associate with the post.
-     */
-    private void savePostTags(Post post, List<String> tagNames) {
-        for (String tagName : tagNames) {
-            Tag tag = tagRepository.findByName(tagName)
-                    .orElseGet(() -> tagRepository.save(Tag.builder().name(tagName).build()));
-
-            post.getTags().add(tag);
-        }
-        postRepository.save(post);
-    }
-
     /**
      * Restores all posts belonging to a specific user by their ID.
      *
      * @param pathUserId ID of the user whose posts will be restored.
-     * @return ResponseEntity containing a list of restored PostResponseDto.
+     * @return ResponseEntity containing the number of restored posts.
      */
     @Transactional
-    public ResponseEntity<List<PostResponseDto>> restoreAllByUserId(Integer pathUserId, String headerUserId) {
+    public ResponseEntity<RestoredPostsDto> restoreAllByUserId(Integer pathUserId, String headerUserId) {
         customLog.info(CUSTOM_LOG_MARKER, "Received request to restore posts by user ID: {}", pathUserId);
 
         userAccessService.userAccessCheck(pathUserId, headerUserId);
 
-        List<Post> posts = postRepository.findAllByUserId(pathUserId);
-        if (posts.isEmpty()) {
+        List<PostExpiryView> restored = postRepository.restoreAllByUserId(pathUserId, LocalDateTime.now());
+        if (restored.isEmpty() && !postRepository.existsByUserId(pathUserId)) {
             customLog.warn(CUSTOM_LOG_MARKER, "No posts found for user ID: {}", pathUserId);
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
 
-        posts.forEach(post -> {
-            LocalDateTime now = LocalDateTime.now();
-            Duration expiredDuration = Duration.between(post.getExpiresAt(), post.getDeletedAt());
-            LocalDateTime newExpirationDate = now.plus(expiredDuration);
-
-            post.setExpiresAt(newExpirationDate);
-            post.setIsDeleted(false);
-            post.setDeletedAt(null);
-        });
-
-        postRepository.saveAll(posts);
-
-        List<PostResponseDto> restoredPosts = posts.stream()
-                .map(converter::convertToPostResponse)
-                .collect(Collectors.toList());
+        List<Integer> postIds = restored.stream().map(PostExpiryView::getId).toList();
+        postCacheService.evictAll(postIds);
+        postExpiryScheduler.scheduleAll(restored.stream()
+                .filter(post -> post.getExpiresAt() != null)
+                .collect(Collectors.toMap(PostExpiryView::getId, PostExpiryView::getExpiresAt)));
 
         customLog.info(CUSTOM_LOG_MARKER, "Sending to search-service for updating in posts index");
-        posts.stream()
-                .map(converter::convertToPostIndex)
-                .forEach(kafkaProducer::sendMessageToPostIndexTopic);
+        outboxService.enqueuePostIndexAll(postIds, PostIndexChange.STATUS);
 
-        customLog.info(CUSTOM_LOG_MARKER, "Posts with user ID: {} restored", pathUserId);
-        return new ResponseEntity<>(restoredPosts, HttpStatus.OK);
+        customLog.info(CUSTOM_LOG_MARKER, "{} posts with user ID: {} restored", postIds.size(), pathUserId);
+        return new ResponseEntity<>(new RestoredPostsDto(postIds.size()), HttpStatus.OK);
     }
 
     /**
-     * Retrieves all posts created by a specific user.
+     * Retrieves one page of the posts created by a specific user, newest first.
      *
-     * @param userId ID of the user.
-     * @return List of posts created by the user.
+     * @param userId       ID of the user.
+     * @param cursor       Continuation token of the page, or null for the first page.
+     * @param size         Requested page size.
+     * @param includeTotal Whether to count all of the user's posts.
+     * @param view         Shape of the items.
+     * @return Page of posts created by the user.
      */
-    public ResponseEntity<List<PostResponseDto>> getPostsByUserId(Integer userId) {
-        customLog.info(CUSTOM_LOG_MARKER, "Fetching all posts for user {}", userId);
+    public ResponseEntity<List<?>> getPostsByUserId(Integer userId, String cursor, Integer size,
+                                                   boolean includeTotal, PostListView view) {
+        customLog.info(CUSTOM_LOG_MARKER, "Fetching posts for user {}", userId);
 
-        var posts = postRepository.findAllByUserIdAndIsDeletedFalse(userId);
+        int pageSize = postPageService.pageSize(size);
+        PostCursor after = PostCursor.decode(cursor);
+        List<PostKeysetView> keys = postRepository.findPageByUserId(userId, after.createdAt(), after.id(), pageSize + 1);
 
-        if (posts.isEmpty()) {
+        if (keys.isEmpty() && after.equals(PostCursor.START)) {
             customLog.warn(CUSTOM_LOG_MARKER, "No post found for user with ID {}", userId);
             throw new PostNotFoundException("Posts not found");
         }
 
-        List<PostResponseDto> userPosts = posts.stream()
-                .map(converter::convertToPostResponse)
-                .collect(Collectors.toList());
-
-        return new ResponseEntity<>(userPosts, HttpStatus.OK);
+        return postPageService.toPage(keys, pageSize,
+                includeTotal ? () -> postRepository.countByUserIdAndIsDeletedFalse(userId) : null, view);
     }
 
     /**
-     * Retrieves all deleted posts created by a specific user.
+     * Retrieves one page of the deleted posts created by a specific user, newest first.
      *
-     * @param pathUserId ID of the user.
-     * @return List of deleted posts created by the user.
+     * @param pathUserId   ID of the user.
+     * @param cursor       Continuation token of the page, or null for the first page.
+     * @param size         Requested page size.
+     * @param includeTotal Whether to count all of the user's deleted posts.
+     * @param view         Shape of the items.
+     * @return Page of deleted posts created by the user.
      */
-    public ResponseEntity<List<PostResponseDto>> getDeletedPostsByUserId(Integer pathUserId, String headerUserId) {
-        customLog.info(CUSTOM_LOG_MARKER, "Fetching all deleted posts for user {}", pathUserId);
+    public ResponseEntity<List<?>> getDeletedPostsByUserId(Integer pathUserId, String headerUserId, String cursor,
+                                                          Integer size, boolean includeTotal, PostListView view) {
+        customLog.info(CUSTOM_LOG_MARKER, "Fetching deleted posts for user {}", pathUserId);
 
         userAccessService.userAccessCheck(pathUserId, headerUserId);
 
-        var posts = postRepository.findByUserIdAndIsDeletedTrue(pathUserId);
+        int pageSize = postPageService.pageSize(size);
+        PostCursor after = PostCursor.decode(cursor);
+        List<PostKeysetView> keys = postRepository.findDeletedPageByUserId(pathUserId, after.createdAt(), after.id(), pageSize + 1);
 
-        if (posts.isEmpty()) {
+        if (keys.isEmpty() && after.equals(PostCursor.START)) {
             customLog.warn(CUSTOM_LOG_MARKER, "No deleted post found for user with ID {}", pathUserId);
             throw new PostNotFoundException("Posts not found");
         }
 
-        List<PostResponseDto> userPosts = posts.stream()
-                .map(converter::convertToPostResponse)
-                .collect(Collectors.toList());
-
-        return new ResponseEntity<>(userPosts, HttpStatus.OK);
+        return postPageService.toPage(keys, pageSize,
+                includeTotal ? () -> postRepository.countByUserIdAndIsDeletedTrue(pathUserId) : null, view);
     }
 
     /**
@@ -367,11 +394,13 @@ public class PostService {
         post.setExpiresAt(newExpirationDate);
 
         postRepository.save(post);
+        postCacheService.evict(postId);
+        postExpiryScheduler.schedule(postId, newExpirationDate);
 
         customLog.info(CUSTOM_LOG_MARKER, "Sending to search-service for updating in posts index");
-        kafkaProducer.sendMessageToPostIndexTopic(converter.convertToPostIndex(post));
+        outboxService.enqueuePostIndex(post.getId(), PostIndexChange.STATUS);
 
         customLog.info(CUSTOM_LOG_MARKER, "Post with ID: {} restored", postId);
-        return new ResponseEntity<>(converter.convertToPostResponse(post), HttpStatus.OK);
+        return new ResponseEntity<>(converter.convertToPostResponse(post, postContentService.getContent(postId)), HttpStatus.OK);
     }
 }
@@ -1,15 +1,45 @@
 package com.raul.paste_service.services.postServices;
 
+import com.raul.common.jobs.JobCoordinator;
+import com.raul.common.jobs.JobLeaseLostException;
+import com.raul.paste_service.dto.post.PostIndexChange;
 import com.raul.paste_service.repositories.PostRepository;
+import com.raul.paste_service.services.outboxServices.OutboxService;
+import com.raul.paste_service.services.schedulerServices.PostRatingService;
 import com.raul.paste_service.utils.IpUtils;
+import jakarta.annotation.PreDestroy;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
+/**
+ * Counts post views. Total views are exact; unique viewers are estimated with one
+ * HyperLogLog sketch per post and dedup window, so Redis memory is bounded per post
+ * rather than per viewer.
+ */
 @Service
 @RequiredArgsConstructor
 public class PostViewService {
@@ -17,35 +47,278 @@ public class PostViewService {
     @Qualifier("stringRedisTemplate")
     private final RedisTemplate<String, String> redisTemplate;
     private final PostRepository postRepository;
-    private static final String VIEWS_IP_CACHE = "view:ip:";
-    private static final String VIEWS_USERID_CACHE = "view:userid:";
-    private static final Duration VIEW_TTL = Duration.ofMinutes(30);
+    private final PostRatingService postRatingService;
+    private final OutboxService outboxService;
+    private final JobCoordinator jobCoordinator;
+    private static final String VIEWERS_HLL = "views:hll:";
+    private static final String ACTIVE_WINDOWS = "views:active:";
+    private static final String PENDING_WINDOWS = "views:windows";
+    private static final int FLUSH_CHUNK_SIZE = 5000;
+    private static final int CLOSE_BATCH_SIZE = 500;
+    private static final Marker CUSTOM_LOG_MARKER = MarkerFactory.getMarker("CUSTOM_LOGGER");
+    private static final Logger customLog = LoggerFactory.getLogger("CUSTOM_LOGGER");
 
-    public void handleView(Integer postId, Integer userId, HttpServletRequest request) {
+    @Value("${views.dedup.window-minutes:30}")
+    private long windowMinutes;
 
-        if (userId != null && isAuthor(postId, userId)) return;
+    @Value("${task.views.flush.millis:5000}")
+    private long flushMillis;
 
-        String key;
-        if (userId != null) {
-            key = VIEWS_USERID_CACHE + userId + ":post:" + postId;
-        } else {
-            String ip = IpUtils.getClientIp(request);
-            key = VIEWS_IP_CACHE + ip + ":post:" + postId;
+    @Value("${task.views.window.close.millis:60000}")
+    private long closeMillis;
+
+    @Value("${views.sketch.retention-minutes:1440}")
+    private long sketchRetentionMinutes;
+
+    /**
+     * Views counted in memory, per post. Request threads increment a counter inside compute() and the
+     * flush drops idle counters inside computeIfPresent(), so no view can land on a removed counter.
+     */
+    private final Map<Integer, ViewCounter> pendingViews = new ConcurrentHashMap<>();
+
+    /**
+     * Viewers seen since the last flush, per post and dedup window. Sets are only modified inside
+     * compute() and taken with remove(), so a flush never drains a set that is still being written.
+     */
+    private final Map<ViewWindow, Set<String>> pendingViewers = new ConcurrentHashMap<>();
+
+    /**
+     * Counts a view of the post. Views and viewers are buffered in memory and written to the
+     * database and Redis in batches, so reads never wait on either.
+     *
+     * @param postId   ID of the viewed post
+     * @param authorId ID of the post author
+     * @param userId   ID of the viewer, or null for anonymous viewers
+     * @param request  Request Object
+     */
+    public void handleView(Integer postId, Integer authorId, Integer userId, HttpServletRequest request) {
+
+        if (userId != null && userId.equals(authorId)) return;
+
+        String viewer = userId != null
+                ? "userid:" + userId
+                : "ip:" + IpUtils.getClientIp(request);
+
+        pendingViews.compute(postId, (id, counter) -> {
+            ViewCounter current = counter != null ? counter : new ViewCounter();
+            current.views.increment();
+            return current;
+        });
+        pendingViewers.compute(new ViewWindow(postId, windowAt(System.currentTimeMillis())), (window, viewers) -> {
+            Set<String> current = viewers != null ? viewers : new HashSet<>();
+            current.add(viewer);
+            return current;
+        });
+    }
+
+    /**
+     * Writes buffered views to the database as one batched UPDATE per flush, and buffered
+     * viewers to their HyperLogLog sketches in one pipelined Redis round trip.
+     * At most one flush interval of views is lost if the node dies.
+     */
+    @Scheduled(fixedDelayString = "${task.views.flush.millis:5000}")
+    public synchronized void flushViews() {
+        flushViewCounts();
+        flushViewers();
+    }
+
+    /**
+     * Folds the estimates of every closed dedup window not folded yet into posts.unique_viewers_count
+     * and drops their sketches, however far the job has fallen behind. Runs on one replica at a time.
+     * A window's post IDs are removed only after their update commits, and a failing window is
+     * left for the next run without holding up the others.
+     */
+    @Scheduled(fixedDelayString = "${task.views.window.close.millis:60000}")
+    public void closeViewWindows() {
+        jobCoordinator.runExclusive("paste.close-view-windows", Duration.ofMillis(closeMillis / 2), this::closePendingWindows);
+    }
+
+    private void closePendingWindows(JobCoordinator.JobRun run) {
+        long lastClosable = windowAt(System.currentTimeMillis() - 2 * flushMillis) - 1;
+        Set<String> windows = redisTemplate.opsForZSet().rangeByScore(PENDING_WINDOWS, Double.NEGATIVE_INFINITY, lastClosable);
+        if (windows == null) {
+            return;
+        }
+
+        for (String window : windows) {
+            try {
+                closeWindow(run, Long.parseLong(window));
+            } catch (JobLeaseLostException e) {
+                throw e;
+            } catch (Exception e) {
+                customLog.error(CUSTOM_LOG_MARKER, "Failed to close view window {}, retrying on next run", window, e);
+            }
+        }
+    }
+
+    /**
+     * Drains the view buffer before the node shuts down.
+     */
+    @PreDestroy
+    public void drain() {
+        flushViews();
+    }
+
+    private void flushViewCounts() {
+        List<Integer> postIds = new ArrayList<>();
+        List<Integer> deltas = new ArrayList<>();
+        List<ViewCounter> counters = new ArrayList<>();
+        List<Long> totals = new ArrayList<>();
+
+        pendingViews.forEach((postId, counter) -> {
+            long total = counter.views.sum();
+            long delta = total - counter.flushed;
+            if (delta == 0) {
+                pendingViews.computeIfPresent(postId, (id, current) ->
+                        current.views.sum() == current.flushed ? null : current);
+                return;
+            }
+            postIds.add(postId);
+            deltas.add((int) delta);
+            counters.add(counter);
+            totals.add(total);
+        });
+
+        for (int from = 0; from < postIds.size(); from += FLUSH_CHUNK_SIZE) {
+            int to = Math.min(from + FLUSH_CHUNK_SIZE, postIds.size());
+            try {
+                postRepository.incrementViews(postIds.subList(from, to), deltas.subList(from, to));
+                for (int i = from; i < to; i++) {
+                    counters.get(i).flushed = totals.get(i);
+                }
+            } catch (Exception e) {
+                customLog.error(CUSTOM_LOG_MARKER, "Failed to flush views for {} posts, retrying on next flush", to - from, e);
+                continue;
+            }
+
+            try {
+                postRatingService.refreshRatings(postIds.subList(from, to));
+                outboxService.enqueuePostIndexAll(postIds.subList(from, to), PostIndexChange.COUNTERS, PostIndexChange.RATING);
+            } catch (Exception e) {
+                customLog.error(CUSTOM_LOG_MARKER, "Failed to refresh ratings and index for {} posts after view flush", to - from, e);
+            }
         }
 
-        Boolean alreadyViewed = redisTemplate.hasKey(key);
+        if (!postIds.isEmpty()) {
+            customLog.info(CUSTOM_LOG_MARKER, "Flushed views for {} posts", postIds.size());
+        }
+    }
+
+    private void flushViewers() {
+        Map<ViewWindow, Set<String>> batch = new HashMap<>();
+        for (ViewWindow window : pendingViewers.keySet()) {
+            Set<String> viewers = pendingViewers.remove(window);
+            if (viewers != null && !viewers.isEmpty()) {
+                batch.put(window, viewers);
+            }
+        }
+
+        if (batch.isEmpty()) {
+            return;
+        }
 
-        if (Boolean.FALSE.equals(alreadyViewed)) {
+        Duration ttl = Duration.ofMinutes(Math.max(windowMinutes * 3, sketchRetentionMinutes));
+        try {
+            redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                    RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                    batch.forEach((window, viewers) -> {
+                        String sketchKey = sketchKey(window.postId(), window.window());
+                        String activeKey = ACTIVE_WINDOWS + window.window();
+                        ops.opsForHyperLogLog().add(sketchKey, viewers.toArray(String[]::new));
+                        ops.expire(sketchKey, ttl);
+                        ops.opsForSet().add(activeKey, window.postId().toString());
+                        ops.expire(activeKey, ttl);
+                        ops.opsForZSet().add(PENDING_WINDOWS, String.valueOf(window.window()), window.window());
+                    });
+                    return null;
+                }
+            });
+        } catch (Exception e) {
+            customLog.error(CUSTOM_LOG_MARKER, "Failed to flush viewers for {} posts", batch.size(), e);
+        }
+    }
+
+    /**
+     * Folds one window in batches of post IDs read with SSCAN. A post ID seen twice by the scan
+     * is harmless: its sketch is gone after the first fold, so the second adds nothing.
+     */
+    private void closeWindow(JobCoordinator.JobRun run, long window) {
+        String activeKey = ACTIVE_WINDOWS + window;
+        int closed = 0;
 
-            postRepository.incrementViews(postId);
+        try (Cursor<String> cursor = redisTemplate.opsForSet()
+                .scan(activeKey, ScanOptions.scanOptions().count(CLOSE_BATCH_SIZE).build())) {
+            List<String> batch = new ArrayList<>(CLOSE_BATCH_SIZE);
+            while (cursor.hasNext()) {
+                batch.add(cursor.next());
+                if (batch.size() == CLOSE_BATCH_SIZE || !cursor.hasNext()) {
+                    run.checkpoint();
+                    foldBatch(run, window, batch);
+                    closed += batch.size();
+                    batch.clear();
+                }
+            }
+        }
 
-            redisTemplate.opsForValue().set(key, "viewed", VIEW_TTL);
+        Long remaining = redisTemplate.opsForSet().size(activeKey);
+        if (remaining == null || remaining == 0) {
+            redisTemplate.opsForZSet().remove(PENDING_WINDOWS, String.valueOf(window));
         }
+        customLog.info(CUSTOM_LOG_MARKER, "Closed view window {} for {} posts", window, closed);
+    }
+
+    /**
+     * Adds a batch of sketches to the posts and drops them. Nothing is added once the job has
+     * lost its lease; the sketches are then kept for the node that took the job over.
+     */
+    private void foldBatch(JobCoordinator.JobRun run, long window, List<String> postIds) {
+        List<String> sketchKeys = postIds.stream()
+                .map(postId -> sketchKey(Integer.valueOf(postId), window))
+                .toList();
+
+        List<Object> estimates = redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                sketchKeys.forEach(key -> ops.opsForHyperLogLog().size(key));
+                return null;
+            }
+        });
+
+        List<Integer> ids = new ArrayList<>(postIds.size());
+        List<Integer> deltas = new ArrayList<>(postIds.size());
+        for (int i = 0; i < postIds.size(); i++) {
+            long estimate = estimates.get(i) instanceof Long count ? count : 0;
+            if (estimate > 0) {
+                ids.add(Integer.valueOf(postIds.get(i)));
+                deltas.add((int) estimate);
+            }
+        }
+
+        if (!ids.isEmpty() && postRepository.incrementUniqueViewers(ids, deltas, run.leaseName(), run.fencingToken()) == 0) {
+            run.checkpoint();
+        }
+        redisTemplate.opsForSet().remove(ACTIVE_WINDOWS + window, postIds.toArray());
+        redisTemplate.delete(sketchKeys);
+    }
+
+    private long windowAt(long epochMillis) {
+        return epochMillis / Duration.ofMinutes(windowMinutes).toMillis();
+    }
+
+    private static String sketchKey(Integer postId, long window) {
+        return VIEWERS_HLL + postId + ":" + window;
+    }
+
+    private record ViewWindow(Integer postId, long window) {
     }
 
-    private boolean isAuthor(Integer postId, Integer userId) {
-        return postRepository.findAuthorId(postId)
-                .map(authorId -> authorId.equals(userId))
-                .orElse(false);
+    private static final class ViewCounter {
+        private final LongAdder views = new LongAdder();
+        private long flushed;
     }
 }
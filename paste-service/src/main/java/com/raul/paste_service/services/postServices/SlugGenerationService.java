@@ -0,0 +1,74 @@
+package com.raul.paste_service.services.postServices;
+
+import com.raul.paste_service.repositories.SlugCounterRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.text.Normalizer;
+
+@Service
+@RequiredArgsConstructor
+public class SlugGenerationService {
+
+    private final SlugCounterRepository slugCounterRepository;
+    private static final int MAX_SLUG_LENGTH = 100;
+    private static final int MAX_BASE_LENGTH = MAX_SLUG_LENGTH - String.valueOf(Integer.MAX_VALUE).length() - 1;
+    private static final String DEFAULT_BASE_SLUG = "post";
+
+    /**
+     * Generation unique slug for paste.
+     * The suffix comes from a per-base-slug counter bumped with a single upsert in the caller's
+     * transaction. The unique constraint on posts.slug stays the final guard; after a conflict
+     * the caller retries with {@code resync} set, which moves the counter past the existing slugs.
+     *
+     * @param source Text to build the slug from.
+     * @param resync Whether to resynchronize the counter with the posts table first.
+     * @return Generated slug.
+     */
+    @Transactional
+    public String generateUniqueSlug(String source, boolean resync) {
+        String baseSlug = toBaseSlug(source);
+        int suffix = resync
+                ? slugCounterRepository.nextSuffixAfterExisting(baseSlug)
+                : slugCounterRepository.nextSuffix(baseSlug);
+        return baseSlug + "-" + suffix;
+    }
+
+    /**
+     * Normalizes text into a slug base in a single pass: diacritics are stripped, letters
+     * lowercased, whitespace and dash runs collapsed into one dash, everything else dropped.
+     *
+     * @param source Text to normalize.
+     * @return Slug base, never longer than {@link #MAX_BASE_LENGTH}.
+     */
+    static String toBaseSlug(String source) {
+        if (source == null) {
+            return DEFAULT_BASE_SLUG;
+        }
+
+        String normalized = Normalizer.normalize(source, Normalizer.Form.NFD);
+        StringBuilder slug = new StringBuilder(Math.min(normalized.length(), MAX_BASE_LENGTH));
+        boolean pendingDash = false;
+
+        for (int i = 0; i < normalized.length(); i++) {
+            char c = Character.toLowerCase(normalized.charAt(i));
+
+            if ((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')) {
+                boolean dash = pendingDash && !slug.isEmpty();
+                if (slug.length() + (dash ? 2 : 1) > MAX_BASE_LENGTH) {
+                    break;
+                }
+                if (dash) {
+                    slug.append('-');
+                }
+                slug.append(c);
+                pendingDash = false;
+            } else if (c == '-' || Character.isWhitespace(c)) {
+                pendingDash = true;
+            }
+        }
+
+        return slug.isEmpty() ? DEFAULT_BASE_SLUG : slug.toString();
+    }
+}
@@ -0,0 +1,96 @@
+package com.raul.paste_service.services.postServices;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.raul.paste_service.models.Tag;
+import com.raul.paste_service.repositories.TagRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Process-local, bounded tag name to ID dictionary shared by all requests.
+ * Tags are never renamed or removed, so cached IDs never go stale.
+ */
+@Service
+@RequiredArgsConstructor
+public class TagDictionary {
+
+    private final TagRepository tagRepository;
+    private final MeterRegistry meterRegistry;
+    private static final Marker CUSTOM_LOG_MARKER = MarkerFactory.getMarker("CUSTOM_LOGGER");
+    private static final Logger customLog = LoggerFactory.getLogger("CUSTOM_LOGGER");
+
+    @Value("${tags.dictionary.max-size:50000}")
+    private int maxSize;
+
+    private Cache<String, Integer> tagIds;
+
+    /**
+     * Warms the dictionary with the most used tags.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        tagIds = CaffeineCacheMetrics.monitor(meterRegistry,
+                Caffeine.newBuilder().maximumSize(maxSize).recordStats().build(), "tags.dictionary");
+
+        List<Tag> tags = tagRepository.findMostUsed(maxSize);
+        tags.forEach(tag -> tagIds.put(tag.getName(), tag.getId()));
+        customLog.info(CUSTOM_LOG_MARKER, "Tag dictionary warmed with {} tags", tags.size());
+    }
+
+    /**
+     * Resolves tag names to tags, creating missing ones with a single batched upsert.
+     *
+     * @param tagNames Tag names, may contain duplicates.
+     * @return Tags for all distinct names.
+     */
+    public List<Tag> resolve(Collection<String> tagNames) {
+        Set<String> names = new LinkedHashSet<>(tagNames);
+        List<Tag> tags = new ArrayList<>(names.size());
+        Set<String> missing = new LinkedHashSet<>();
+
+        for (String name : names) {
+            Integer id = tagIds == null ? null : tagIds.getIfPresent(name);
+            if (id != null) {
+                tags.add(Tag.builder().id(id).name(name).build());
+            } else {
+                missing.add(name);
+            }
+        }
+
+        if (missing.isEmpty()) {
+            return tags;
+        }
+
+        List<Tag> resolved = tagRepository.upsertAllByName(missing);
+        if (resolved.size() < missing.size()) {
+            // Tags committed concurrently are invisible to the upsert's snapshot.
+            resolved.stream().map(Tag::getName).toList().forEach(missing::remove);
+            resolved = new ArrayList<>(resolved);
+            resolved.addAll(tagRepository.findAllByNameIn(missing));
+        }
+
+        for (Tag tag : resolved) {
+            if (tagIds != null) {
+                tagIds.put(tag.getName(), tag.getId());
+            }
+            tags.add(tag);
+        }
+        return tags;
+    }
+}
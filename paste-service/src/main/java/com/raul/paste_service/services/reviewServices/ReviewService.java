@@ -1,11 +1,14 @@
 package com.raul.paste_service.services.reviewServices;
 
+import com.raul.paste_service.dto.post.PostIndexChange;
 import com.raul.paste_service.dto.review.ReviewRequestDto;
 import com.raul.paste_service.dto.review.ReviewResponseDto;
 import com.raul.paste_service.models.Review;
 import com.raul.paste_service.repositories.PostRepository;
 import com.raul.paste_service.repositories.ReviewRepository;
 import com.raul.paste_service.services.UserAccessService;
+import com.raul.paste_service.services.outboxServices.OutboxService;
+import com.raul.paste_service.services.schedulerServices.PostRatingService;
 import com.raul.paste_service.utils.exceptions.PostNotFoundException;
 import com.raul.paste_service.utils.exceptions.ReviewNotFoundException;
 import lombok.RequiredArgsConstructor;
@@ -16,6 +19,7 @@ import org.slf4j.MarkerFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -29,6 +33,8 @@ public class ReviewService {
     private static final Marker CUSTOM_LOG_MARKER = MarkerFactory.getMarker("CUSTOM_LOGGER");
     private static final Logger customLog = LoggerFactory.getLogger("CUSTOM_LOGGER");
     private final UserAccessService userAccessService;
+    private final PostRatingService postRatingService;
+    private final OutboxService outboxService;
 
     /**
      * Adds a new review to a post.
@@ -36,6 +42,7 @@ public class ReviewService {
      * @param request DTO containing review details.
      * @return ResponseEntity with created ReviewResponseDto.
      */
+    @Transactional
     public ResponseEntity<ReviewResponseDto> addReview(ReviewRequestDto request, String userId) {
 
         customLog.info(CUSTOM_LOG_MARKER, "Adding review for post ID: {} by user ID: {}", request.postId(), userId);
@@ -54,6 +61,9 @@ public class ReviewService {
                 .build();
 
         reviewRepository.save(review);
+        postRepository.adjustGrades(post.getId(), review.getGrade(), 1);
+        postRatingService.refreshRatings(List.of(post.getId()));
+        outboxService.enqueuePostIndex(post.getId(), PostIndexChange.RATING);
         customLog.info(CUSTOM_LOG_MARKER, "Review saved with ID: {}", review.getId());
 
         ReviewResponseDto response = new ReviewResponseDto(
@@ -100,6 +110,7 @@ public class ReviewService {
      * @param reviewId ID of the review to delete.
      * @return ResponseEntity with no content.
      */
+    @Transactional
     public ResponseEntity<Void> deleteReview(Integer reviewId, String userId) {
         customLog.info(CUSTOM_LOG_MARKER, "Attempting to delete review with ID: {}", reviewId);
 
@@ -111,7 +122,11 @@ public class ReviewService {
 
         userAccessService.userAccessCheck(review.getUserId(), userId);
 
+        Integer postId = review.getPost().getId();
         reviewRepository.delete(review);
+        postRepository.adjustGrades(postId, -review.getGrade(), -1);
+        postRatingService.refreshRatings(List.of(postId));
+        outboxService.enqueuePostIndex(postId, PostIndexChange.RATING);
         customLog.info(CUSTOM_LOG_MARKER, "Review with ID: {} deleted successfully", reviewId);
 
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
@@ -0,0 +1,56 @@
+package com.raul.paste_service.services.schedulerServices;
+
+import com.raul.common.jobs.JobCoordinator;
+import com.raul.common.jobs.JobLeaseLostException;
+import com.raul.paste_service.services.outboxServices.OutboxService;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.function.IntSupplier;
+
+@Service
+@RequiredArgsConstructor
+public class OutboxRelay {
+
+    private final OutboxService outboxService;
+    private final JobCoordinator jobCoordinator;
+    private static final Marker CUSTOM_LOG_MARKER = MarkerFactory.getMarker("CUSTOM_LOGGER");
+    private static final Logger customLog = LoggerFactory.getLogger("CUSTOM_LOGGER");
+
+    @Value("${outbox.relay.batch-size:500}")
+    private int batchSize;
+
+    /**
+     * Drains the outbox and the post index queue, one batch at a time, until both are empty.
+     * A single node relays at a time, under the relay lease, which keeps the event order.
+     * Index marks written between two polls are coalesced, so the poll interval is the coalescing window.
+     */
+    @Scheduled(fixedDelayString = "${outbox.relay.poll.millis:200}")
+    public void relayPendingEvents() {
+        jobCoordinator.runExclusive("paste.outbox-relay", Duration.ZERO, run -> {
+            drain("outbox", run, () -> outboxService.relayBatch(batchSize));
+            drain("post index queue", run, () -> outboxService.relayPostIndexBatch(batchSize));
+        });
+    }
+
+    private void drain(String source, JobCoordinator.JobRun run, IntSupplier relayBatch) {
+        try {
+            int relayed;
+            do {
+                run.checkpoint();
+                relayed = relayBatch.getAsInt();
+            } while (relayed == batchSize);
+        } catch (JobLeaseLostException e) {
+            throw e;
+        } catch (Exception e) {
+            customLog.error(CUSTOM_LOG_MARKER, "Relay of {} failed, retrying on next poll", source, e);
+        }
+    }
+}
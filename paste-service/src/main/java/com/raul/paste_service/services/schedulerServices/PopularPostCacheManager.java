@@ -1,27 +1,36 @@
 package com.raul.paste_service.services.schedulerServices;
 
+import com.raul.common.jobs.JobCoordinator;
 import com.raul.paste_service.dto.notification.EmailNotificationDto;
 import com.raul.paste_service.dto.notification.EmailNotificationSubject;
+import com.raul.paste_service.dto.post.PostCacheEntry;
 import com.raul.paste_service.models.Post;
 import com.raul.paste_service.models.SentPostNotification;
 import com.raul.paste_service.repositories.PostRepository;
 import com.raul.paste_service.repositories.SentPostNotificationRepository;
-import com.raul.paste_service.services.kafkaServices.KafkaProducer;
+import com.raul.paste_service.services.cacheServices.PostCacheService;
+import com.raul.paste_service.services.outboxServices.OutboxService;
+import com.raul.paste_service.services.postServices.PostContentService;
+import com.raul.paste_service.services.postServices.PostConverter;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.Marker;
 import org.slf4j.MarkerFactory;
-import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.TimeUnit;
 
 @Service
 @RequiredArgsConstructor
@@ -29,15 +38,44 @@ import java.util.concurrent.TimeUnit;
 public class PopularPostCacheManager {
 
     private final PostRepository postRepository;
-    private static final long TTL = 60;
-    private final KafkaProducer kafkaNotificationProducer;
+    private final PostConverter converter;
+    private final PostContentService postContentService;
+    private final PostCacheService postCacheService;
+    private final OutboxService outboxService;
+    private final TransactionTemplate transactionTemplate;
     private final SentPostNotificationRepository sentPostNotificationRepository;
+    private final JobCoordinator jobCoordinator;
     private final static Marker CUSTOM_LOG_MARKER = MarkerFactory.getMarker("CUSTOM_LOGGER");
     private static final Logger customLog = LoggerFactory.getLogger("CUSTOM_LOGGER");
-    private final RedisTemplate<String, Post> redisTemplate;
+
+    @Value("${task.fixed.rate.millis}")
+    private long tickMillis;
+
+    @Value("${cache.popular.ttl.min-seconds:60}")
+    private long minTtlSeconds;
+
+    @Value("${cache.popular.ttl.max-seconds:3600}")
+    private long maxTtlSeconds;
+
+    @Value("${cache.popular.hot-views-per-minute:100}")
+    private double hotViewsPerMinute;
+
+    /**
+     * Views seen for each popular post on the previous tick, used to derive the current view rate.
+     */
+    private Map<Integer, Integer> previousViews = new HashMap<>();
+
+    /**
+     * When this node last ran the job. Other replicas may have run it in between, so rates use the real elapsed time.
+     */
+    private LocalDateTime previousTickAt;
 
     @Scheduled(fixedRateString = "${task.fixed.rate.millis}")
     public void updatePopularPostInRedis() {
+        jobCoordinator.runExclusive("paste.popular-post-cache", Duration.ofMillis(tickMillis / 2), run -> cachePopularPosts());
+    }
+
+    private void cachePopularPosts() {
         customLog.info(CUSTOM_LOG_MARKER, "Starting scheduled task to check post views and put popular posts in to Redis.");
 
         List<Post> popularPosts = postRepository.findAllByViewsCount();
@@ -46,34 +84,69 @@ public class PopularPostCacheManager {
             return;
         }
 
-        Set<Integer> notifiedPostIds = sentPostNotificationRepository.findAllNotifiedPostIds();
+        LocalDateTime now = LocalDateTime.now();
+        long elapsedMillis = previousTickAt == null ? tickMillis : Duration.between(previousTickAt, now).toMillis();
 
+        List<Integer> postIds = popularPosts.stream().map(Post::getId).toList();
+        Map<Integer, String> contents = postContentService.getContents(postIds);
+
+        // Versions are taken before the liveness re-check: a post deleted or expired after the re-check
+        // is evicted after that point too, which bumps its version and makes the write below skip it.
+        Map<Integer, String> versions = postCacheService.readVersions(postIds);
+        Set<Integer> liveIds = new HashSet<>(postRepository.findLiveIdsByIdIn(postIds.toArray(Integer[]::new), LocalDateTime.now()));
+
+        Map<PostCacheEntry, Duration> entries = new LinkedHashMap<>();
+        Map<Integer, Integer> currentViews = new HashMap<>();
         for (Post popularPost : popularPosts) {
-            try {
-                putInRedis(popularPost);
-            } catch (Exception e) {
-                customLog.error(CUSTOM_LOG_MARKER, "Failed to cache post with ID {} in Redis.", popularPost.getId(), e);
-                continue;
+            currentViews.put(popularPost.getId(), popularPost.getViewsCount());
+            if (liveIds.contains(popularPost.getId())) {
+                entries.put(converter.convertToPostCacheEntry(popularPost, contents.getOrDefault(popularPost.getId(), "")),
+                        ttlFor(popularPost, elapsedMillis));
             }
+        }
 
+        int cached = postCacheService.putAllIfUnchanged(entries, versions);
+        previousViews = currentViews;
+        previousTickAt = now;
+        customLog.info(CUSTOM_LOG_MARKER, "Cached {} of {} popular posts in Redis.", cached, popularPosts.size());
+
+        Set<Integer> notifiedPostIds = sentPostNotificationRepository.findAllNotifiedPostIds();
+
+        for (Post popularPost : popularPosts) {
             if (!notifiedPostIds.contains(popularPost.getId())) {
                 sendNotification(popularPost);
             }
         }
     }
 
-    private void putInRedis(Post post) {
-        String key = "post:" + post.getId();
-
-        Boolean hasKey = redisTemplate.hasKey(key);
-        if (Boolean.TRUE.equals(hasKey)) {
-            customLog.info(CUSTOM_LOG_MARKER, "Post with ID {} already exists in Redis. Skipping.", post.getId());
-            return;
+    /**
+     * Scales the cache TTL with the post's view rate: the hotter the post, the longer it stays cached.
+     * The rate comes from the views gained since the previous tick, or from the lifetime average
+     * for posts that have just become popular.
+     *
+     * @param post          Popular post.
+     * @param elapsedMillis Time since this node's previous tick.
+     * @return TTL between the configured minimum and maximum, cut short by the post's expiration.
+     */
+    private Duration ttlFor(Post post, long elapsedMillis) {
+        Integer seenViews = previousViews.get(post.getId());
+        double viewsPerMinute;
+        if (seenViews != null) {
+            viewsPerMinute = Math.max(0, post.getViewsCount() - seenViews) * 60_000.0 / Math.max(1, elapsedMillis);
+        } else {
+            long ageMinutes = Math.max(1, Duration.between(post.getCreatedAt(), LocalDateTime.now()).toMinutes());
+            viewsPerMinute = (double) post.getViewsCount() / ageMinutes;
         }
 
-        redisTemplate.opsForValue().set(key, post, TTL, TimeUnit.SECONDS);
-
-        customLog.info(CUSTOM_LOG_MARKER, "Post with ID {} cached in Redis.", post.getId());
+        double heat = Math.min(1.0, viewsPerMinute / hotViewsPerMinute);
+        Duration ttl = Duration.ofSeconds(minTtlSeconds + Math.round((maxTtlSeconds - minTtlSeconds) * heat));
+        if (post.getExpiresAt() != null) {
+            Duration untilExpiry = Duration.between(LocalDateTime.now(), post.getExpiresAt());
+            if (untilExpiry.compareTo(ttl) < 0) {
+                ttl = untilExpiry.isNegative() || untilExpiry.isZero() ? Duration.ofMillis(1) : untilExpiry;
+            }
+        }
+        return ttl;
     }
 
     private void sendNotification(Post post) {
@@ -85,19 +158,20 @@ public class PopularPostCacheManager {
                 .sendAt(LocalDateTime.now())
                 .build();
 
-        sentPostNotificationRepository.save(sentPostNotification);
-
         Map<String, String> placeholders = Map.of(
                 "post_title", post.getTitle()
         );
 
-        kafkaNotificationProducer.sendMessageToNotificationTopic(
-                new EmailNotificationDto(
-                        post.getUserId(),
-                        EmailNotificationSubject.POPULAR_POST_NOTIFICATION,
-                        placeholders
-                )
-        );
+        transactionTemplate.executeWithoutResult(status -> {
+            sentPostNotificationRepository.save(sentPostNotification);
+            outboxService.enqueueNotification(
+                    new EmailNotificationDto(
+                            post.getUserId(),
+                            EmailNotificationSubject.POPULAR_POST_NOTIFICATION,
+                            placeholders
+                    )
+            );
+        });
 
         customLog.info(CUSTOM_LOG_MARKER, "Notification sent for post ID: {}", post.getId());
     }
@@ -1,113 +1,185 @@
 package com.raul.paste_service.services.schedulerServices;
 
+import com.raul.common.jobs.JobCoordinator;
 import com.raul.paste_service.dto.notification.EmailNotificationDto;
 import com.raul.paste_service.dto.notification.EmailNotificationSubject;
-import com.raul.paste_service.models.Post;
+import com.raul.paste_service.dto.post.PostIndexChange;
+import com.raul.paste_service.dto.post.PostNotificationView;
+import com.raul.paste_service.dto.post.PostPurgeDto;
 import com.raul.paste_service.models.SentPostNotification;
 import com.raul.paste_service.repositories.PostRepository;
 import com.raul.paste_service.repositories.SentPostNotificationRepository;
-import com.raul.paste_service.services.kafkaServices.KafkaProducer;
+import com.raul.paste_service.services.cacheServices.PostCacheService;
+import com.raul.paste_service.services.outboxServices.OutboxService;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.Marker;
 import org.slf4j.MarkerFactory;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 @Service
 @RequiredArgsConstructor
 @EnableAsync
 public class PostCleanUpService {
     private final PostRepository postRepository;
-    private final KafkaProducer kafkaProducer;
     private final SentPostNotificationRepository sentPostNotificationRepository;
+    private final PostCacheService postCacheService;
+    private final OutboxService outboxService;
+    private final TransactionTemplate transactionTemplate;
+    private final JobCoordinator jobCoordinator;
     private final static Marker CUSTOM_LOG_MARKER = MarkerFactory.getMarker("CUSTOM_LOGGER");
     private static final Logger customLog = LoggerFactory.getLogger("CUSTOM_LOGGER");
 
+    @Value("${task.fixed.rate.millis}")
+    private long sweepRateMillis;
+
+    @Value("${jobs.cron.min-interval-seconds:3600}")
+    private long cronMinIntervalSeconds;
+
+    @Value("${task.expiration.batch-size:500}")
+    private int expirationBatchSize;
+
+    @Value("${task.purge.batch-size:1000}")
+    private int purgeBatchSize;
+
+    @Value("${task.purge.rate.millis:60000}")
+    private long purgeRateMillis;
+
+    /**
+     * Expires the given posts if they are still live and due.
+     *
+     * @param postIds IDs of the posts whose deadline has passed.
+     * @param now     Deadline to check the posts against.
+     * @return Number of posts expired.
+     */
+    public int expirePosts(Collection<Integer> postIds, LocalDateTime now) {
+        return expireBatch(() -> postRepository.markAsDeletedExpiredByIds(postIds, now)).size();
+    }
+
+    /**
+     * Sweeps for due posts the expiry scheduler missed, in bounded batches. Each batch commits on its own,
+     * together with the outbox events for its author notifications and index updates.
+     */
     @Scheduled(fixedRateString = "${task.fixed.rate.millis}", initialDelayString = "${task.initial.delay.millis}")
     public void markAsDeletedExpiredPosts() {
+        jobCoordinator.runExclusive("paste.expire-posts", Duration.ofMillis(sweepRateMillis / 2), this::markAsDeletedExpiredPosts);
+    }
+
+    private void markAsDeletedExpiredPosts(JobCoordinator.JobRun run) {
         customLog.info(CUSTOM_LOG_MARKER, "Starting scheduled task to check and mark as deleted expired posts.");
 
         LocalDateTime now = LocalDateTime.now();
+        int total = 0;
 
         try {
-            List<Post> expiredPosts = postRepository.findAllExpiredPosts(now);
-
-            if (expiredPosts.isEmpty()) {
+            List<PostNotificationView> expiredPosts;
+            do {
+                run.checkpoint();
+                expiredPosts = expireBatch(() -> postRepository.markAsDeletedExpiredBatch(now, expirationBatchSize, run.leaseName(), run.fencingToken()));
+                total += expiredPosts.size();
+            } while (expiredPosts.size() == expirationBatchSize);
+
+            if (total == 0) {
                 customLog.info(CUSTOM_LOG_MARKER, "No expired post found for mark as deleted.");
                 return;
             }
 
-            customLog.info(CUSTOM_LOG_MARKER, "Found {} expired posts for mark as deleted.", expiredPosts.size());
-
-            try {
-                sendNotification(expiredPosts);
-                customLog.info(CUSTOM_LOG_MARKER, "Notifications sent for expired posts.");
-            } catch (Exception e) {
-                customLog.error(CUSTOM_LOG_MARKER, "Failed to send notifications for expired posts.", e);
-            }
-
-            postRepository.markAsDeletedExpiredPosts(now);
-
-            customLog.info(CUSTOM_LOG_MARKER, "Successfully mark as deleted {} expired posts.", expiredPosts.size());
+            customLog.info(CUSTOM_LOG_MARKER, "Successfully mark as deleted {} expired posts.", total);
         } catch (Exception e) {
-            customLog.error(CUSTOM_LOG_MARKER, "Error occurred during expired post mark as deleted process.", e);
+            customLog.error(CUSTOM_LOG_MARKER, "Error occurred during expired post mark as deleted process, {} posts expired before failure.", total, e);
             throw new RuntimeException("Failed to mark up expired posts", e);
         }
     }
 
-    @Scheduled(cron = "${task.cleanup.cron}")
+    /**
+     * Purges one batch of posts deleted more than 30 days ago per run. A backlog drains over the
+     * following runs, so the job never holds its lease or a scheduler thread while idling between
+     * batches. The purge event of a batch is stored in the transaction that deletes it, and cached
+     * copies are evicted once it commits.
+     */
+    @Scheduled(fixedDelayString = "${task.purge.rate.millis:60000}", initialDelayString = "${task.initial.delay.millis}")
     public void removeAllDeletedPosts() {
-        customLog.info(CUSTOM_LOG_MARKER, "Starting scheduled task to check and remove deleted posts.");
+        jobCoordinator.runExclusive("paste.purge-deleted-posts", Duration.ofMillis(purgeRateMillis / 2), this::removeAllDeletedPosts);
+    }
 
-        try {
-            LocalDateTime threshold = LocalDateTime.now().minusDays(30);
-            List<Post> oldDeletedPosts = postRepository.findPostsDeletedBefore(threshold);
+    private void removeAllDeletedPosts(JobCoordinator.JobRun run) {
+        LocalDateTime threshold = LocalDateTime.now().minusDays(30);
 
-            if (oldDeletedPosts.isEmpty()) {
-                customLog.info(CUSTOM_LOG_MARKER, "No deleted post found for removal.");
+        try {
+            List<Integer> purgedIds = transactionTemplate.execute(status -> {
+                List<Integer> postIds = postRepository.purgeDeletedBatch(threshold, purgeBatchSize, run.leaseName(), run.fencingToken());
+                if (!postIds.isEmpty()) {
+                    postCacheService.evictAll(postIds);
+                    outboxService.enqueuePurge(new PostPurgeDto(postIds));
+                }
+                return postIds;
+            });
+
+            if (purgedIds.isEmpty()) {
                 return;
             }
 
-            customLog.info(CUSTOM_LOG_MARKER, "Found {} deleted posts for removal.", oldDeletedPosts.size());
-
-            postRepository.deleteAll(oldDeletedPosts);
-
-            customLog.info(CUSTOM_LOG_MARKER, "Successfully remove {} deleted posts.", oldDeletedPosts.size());
+            customLog.info(CUSTOM_LOG_MARKER, "Successfully remove {} deleted posts{}.", purgedIds.size(),
+                    purgedIds.size() == purgeBatchSize ? ", the rest is left to the next run" : "");
         } catch (Exception e) {
             customLog.error(CUSTOM_LOG_MARKER, "Error occurred during deleted post removal process.", e);
             throw new RuntimeException("Failed to clean up deleted posts", e);
         }
     }
 
-    @Async
-    void sendNotification(List<Post> expiredPosts) {
-
-        for (Post expiredPost : expiredPosts) {
-            Map<String, String> placeholders = Map.of(
-                    "post_title", expiredPost.getTitle()
-            );
+    /**
+     * Marks a batch of posts as expired and stores its events in one transaction.
+     * Cached copies are evicted once it commits.
+     */
+    private List<PostNotificationView> expireBatch(Supplier<List<PostNotificationView>> markAsDeleted) {
+        return transactionTemplate.execute(status -> {
+            List<PostNotificationView> expiredPosts = markAsDeleted.get();
+            if (expiredPosts.isEmpty()) {
+                return expiredPosts;
+            }
 
-            SentPostNotification sentPostNotification = SentPostNotification.builder()
-                    .postId(expiredPost.getId())
-                    .notificationType(EmailNotificationSubject.POST_EXPIRATION_NOTIFICATION)
-                    .sendAt(LocalDateTime.now())
-                    .build();
+            List<Integer> postIds = expiredPosts.stream().map(PostNotificationView::getId).toList();
+            postCacheService.evictAll(postIds);
+            sendNotification(expiredPosts);
+            outboxService.enqueuePostIndexAll(postIds, PostIndexChange.STATUS);
+            return expiredPosts;
+        });
+    }
 
-            sentPostNotificationRepository.save(sentPostNotification);
+    private void sendNotification(List<PostNotificationView> expiredPosts) {
+        LocalDateTime now = LocalDateTime.now();
 
-            kafkaProducer.sendMessageToNotificationTopic(
+        sentPostNotificationRepository.saveAll(expiredPosts.stream()
+                .map(expiredPost -> SentPostNotification.builder()
+                        .postId(expiredPost.getId())
+                        .notificationType(EmailNotificationSubject.POST_EXPIRATION_NOTIFICATION)
+                        .sendAt(now)
+                        .build())
+                .toList());
+
+        // Recipients are locked in a fixed order, so concurrent batches cannot deadlock on them.
+        List<PostNotificationView> byRecipient = expiredPosts.stream()
+                .sorted(Comparator.comparing(PostNotificationView::getUserId))
+                .toList();
+        for (PostNotificationView expiredPost : byRecipient) {
+            outboxService.enqueueNotification(
                     new EmailNotificationDto(
                             expiredPost.getUserId(),
                             EmailNotificationSubject.POST_EXPIRATION_NOTIFICATION,
-                            placeholders
+                            Map.of("post_title", expiredPost.getTitle())
                     )
             );
         }
@@ -0,0 +1,178 @@
+package com.raul.paste_service.services.schedulerServices;
+
+import com.raul.common.jobs.JobCoordinator;
+import com.raul.paste_service.dto.post.PostExpiryView;
+import com.raul.paste_service.repositories.PostRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Fires post expirations close to their deadline. Upcoming deadlines are kept in a Redis sorted set
+ * scored by expiresAt, so a poll only touches the rows that are actually due.
+ */
+@Service
+@RequiredArgsConstructor
+public class PostExpiryScheduler {
+
+    static final String EXPIRY_QUEUE = "posts:expiry";
+
+    /**
+     * Atomically takes up to ARGV[2] members due at ARGV[1], so each deadline fires on one node only.
+     */
+    private static final RedisScript<List> CLAIM_DUE_SCRIPT = new DefaultRedisScript<>(
+            "local ids = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', ARGV[1], 'LIMIT', 0, ARGV[2]) " +
+            "if #ids > 0 then redis.call('ZREM', KEYS[1], unpack(ids)) end " +
+            "return ids",
+            List.class);
+
+    private final RedisTemplate<String, String> stringRedisTemplate;
+    private final PostRepository postRepository;
+    private final PostCleanUpService postCleanUpService;
+    private final JobCoordinator jobCoordinator;
+    private static final Marker CUSTOM_LOG_MARKER = MarkerFactory.getMarker("CUSTOM_LOGGER");
+    private static final Logger customLog = LoggerFactory.getLogger("CUSTOM_LOGGER");
+
+    @Value("${task.expiration.batch-size:500}")
+    private int batchSize;
+
+    @Value("${task.expiry.reload.millis:300000}")
+    private long reloadMillis;
+
+    @Value("${task.expiry.reload.page-size:1000}")
+    private int reloadPageSize;
+
+    /**
+     * Registers or moves the deadline of a post. A null deadline cancels it.
+     *
+     * @param postId    ID of the post.
+     * @param expiresAt New expiration time of the post.
+     */
+    public void schedule(Integer postId, LocalDateTime expiresAt) {
+        try {
+            if (expiresAt == null) {
+                stringRedisTemplate.opsForZSet().remove(EXPIRY_QUEUE, postId.toString());
+            } else {
+                stringRedisTemplate.opsForZSet().add(EXPIRY_QUEUE, postId.toString(), toScore(expiresAt));
+            }
+        } catch (Exception e) {
+            customLog.error(CUSTOM_LOG_MARKER, "Failed to schedule expiry of post {}, the next reload will pick it up", postId, e);
+        }
+    }
+
+    /**
+     * Registers or moves the deadlines of several posts in one round trip.
+     *
+     * @param deadlines Expiration times by post ID.
+     */
+    public void scheduleAll(Map<Integer, LocalDateTime> deadlines) {
+        if (deadlines.isEmpty()) {
+            return;
+        }
+
+        Set<ZSetOperations.TypedTuple<String>> entries = deadlines.entrySet().stream()
+                .map(deadline -> ZSetOperations.TypedTuple.of(deadline.getKey().toString(), (double) toScore(deadline.getValue())))
+                .collect(Collectors.toSet());
+        try {
+            stringRedisTemplate.opsForZSet().add(EXPIRY_QUEUE, entries);
+        } catch (Exception e) {
+            customLog.error(CUSTOM_LOG_MARKER, "Failed to schedule expiry of {} posts, the next reload will pick them up", deadlines.size(), e);
+        }
+    }
+
+    /**
+     * Expires the posts whose deadline has passed.
+     */
+    @Scheduled(fixedDelayString = "${task.expiry.poll.millis:500}")
+    public void fireDueExpirations() {
+        LocalDateTime now = LocalDateTime.now();
+
+        List<String> due;
+        do {
+            due = claimDue(now);
+            if (due.isEmpty()) {
+                return;
+            }
+
+            List<Integer> postIds = due.stream().map(Integer::valueOf).toList();
+            try {
+                int expired = postCleanUpService.expirePosts(postIds, now);
+                customLog.info(CUSTOM_LOG_MARKER, "Expired {} of {} due posts", expired, postIds.size());
+            } catch (Exception e) {
+                customLog.error(CUSTOM_LOG_MARKER, "Failed to expire {} due posts, requeueing them", postIds.size(), e);
+                scheduleAll(postIds.stream().collect(Collectors.toMap(Function.identity(), id -> now)));
+                return;
+            }
+        } while (due.size() == batchSize);
+    }
+
+    /**
+     * Re-registers every deadline falling before the next reload, so deadlines lost by Redis
+     * or written before this scheduler existed still fire on time. Deadlines already past are
+     * left to the expiry sweep, which works through them in bounded batches.
+     */
+    @Scheduled(fixedRateString = "${task.expiry.reload.millis:300000}")
+    public void reloadUpcomingExpirations() {
+        jobCoordinator.runExclusive("paste.reload-expirations", Duration.ofMillis(reloadMillis / 2), this::reload);
+    }
+
+    private void reload(JobCoordinator.JobRun run) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime until = now.plus(Duration.ofMillis(2 * reloadMillis));
+
+        // Starts strictly after now: (now, MAX_VALUE) sorts after every row due at now.
+        LocalDateTime afterExpiresAt = now;
+        int afterId = Integer.MAX_VALUE;
+        int total = 0;
+        List<PostExpiryView> page;
+        do {
+            run.checkpoint();
+            page = postRepository.findExpiringPage(afterExpiresAt, afterId, until, reloadPageSize);
+            if (page.isEmpty()) {
+                break;
+            }
+
+            scheduleAll(page.stream().collect(Collectors.toMap(PostExpiryView::getId, PostExpiryView::getExpiresAt)));
+            total += page.size();
+            PostExpiryView last = page.get(page.size() - 1);
+            afterExpiresAt = last.getExpiresAt();
+            afterId = last.getId();
+        } while (page.size() == reloadPageSize);
+
+        customLog.info(CUSTOM_LOG_MARKER, "Reloaded {} upcoming post expirations", total);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> claimDue(LocalDateTime now) {
+        try {
+            List<String> due = stringRedisTemplate.execute(CLAIM_DUE_SCRIPT, List.of(EXPIRY_QUEUE),
+                    Long.toString(toScore(now)), Integer.toString(batchSize));
+            return due == null ? List.of() : due;
+        } catch (Exception e) {
+            customLog.error(CUSTOM_LOG_MARKER, "Failed to claim due post expirations", e);
+            return List.of();
+        }
+    }
+
+    private static long toScore(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
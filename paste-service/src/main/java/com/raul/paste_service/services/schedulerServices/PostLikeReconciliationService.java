@@ -0,0 +1,65 @@
+package com.raul.paste_service.services.schedulerServices;
+
+import com.raul.common.jobs.JobCoordinator;
+import com.raul.paste_service.repositories.PostRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+
+@Service
+@RequiredArgsConstructor
+public class PostLikeReconciliationService {
+
+    private final PostRepository postRepository;
+    private final JobCoordinator jobCoordinator;
+    private final TransactionTemplate transactionTemplate;
+    private static final Marker CUSTOM_LOG_MARKER = MarkerFactory.getMarker("CUSTOM_LOGGER");
+    private static final Logger customLog = LoggerFactory.getLogger("CUSTOM_LOGGER");
+
+    @Value("${jobs.cron.min-interval-seconds:3600}")
+    private long cronMinIntervalSeconds;
+
+    @Value("${task.likes.reconcile.chunk-size:1000}")
+    private int chunkSize;
+
+    /**
+     * Repairs any drift between posts.likes_count and the actual rows in post_likes, in keyset chunks
+     * of posts that each commit on their own.
+     */
+    @Scheduled(cron = "${task.likes.reconcile.cron:0 30 3 * * *}")
+    public void reconcileLikesCount() {
+        jobCoordinator.runExclusive("paste.reconcile-likes", Duration.ofSeconds(cronMinIntervalSeconds), this::reconcile);
+    }
+
+    private void reconcile(JobCoordinator.JobRun run) {
+        customLog.info(CUSTOM_LOG_MARKER, "Starting likes count reconciliation...");
+
+        int afterId = 0;
+        int repaired = 0;
+        Integer upToId;
+        while ((upToId = postRepository.findChunkUpperId(afterId, chunkSize)) != null) {
+            run.checkpoint();
+            int fromId = afterId;
+            int toId = upToId;
+            repaired += transactionTemplate.execute(status -> {
+                postRepository.lockRange(fromId, toId);
+                return postRepository.reconcileLikesCountInRange(fromId, toId, run.leaseName(), run.fencingToken());
+            });
+            afterId = upToId;
+        }
+
+        if (repaired > 0) {
+            customLog.warn(CUSTOM_LOG_MARKER, "Repaired likes count drift on {} posts", repaired);
+        } else {
+            customLog.info(CUSTOM_LOG_MARKER, "Likes count reconciliation found no drift.");
+        }
+    }
+}
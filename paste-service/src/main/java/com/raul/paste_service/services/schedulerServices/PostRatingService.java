@@ -1,57 +1,103 @@
 package com.raul.paste_service.services.schedulerServices;
 
-import com.raul.paste_service.models.Post;
-import com.raul.paste_service.repositories.PostLikeRepository;
+import com.raul.common.jobs.JobCoordinator;
+import com.raul.paste_service.dto.post.PostIndexChange;
+import com.raul.paste_service.repositories.PostRatingStatsRepository;
 import com.raul.paste_service.repositories.PostRepository;
-import com.raul.paste_service.repositories.ReviewRepository;
-import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.Marker;
 import org.slf4j.MarkerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
+import java.time.Duration;
+import java.util.Collection;
 
 @Service
 @RequiredArgsConstructor
 public class PostRatingService {
 
-    private final ReviewRepository reviewRepository;
+    private static final int RATING_CHANGE = PostIndexChange.toBits(PostIndexChange.RATING);
+
     private final PostRepository postRepository;
-    private final PostLikeRepository postLikeRepository;
+    private final PostRatingStatsRepository postRatingStatsRepository;
+    private final JobCoordinator jobCoordinator;
     private static final Marker CUSTOM_LOG_MARKER = MarkerFactory.getMarker("CUSTOM_LOGGER");
     private static final Logger customLog = LoggerFactory.getLogger("CUSTOM_LOGGER");
 
-    @Scheduled(cron = "${task.rating.cron}")
-    @Transactional
-    public void updatePostRatings() {
-        customLog.info(CUSTOM_LOG_MARKER, "Starting post rating update...");
+    @Value("${task.rating.chunk-size:10000}")
+    private int chunkSize;
 
-        int maxLikes = postLikeRepository.findMaxLikes();
-        int maxViews = postRepository.findMaxViews();
+    @Value("${task.rating.shards:4}")
+    private int shards;
 
-        List<Post> posts = postRepository.findAllByIsDeletedFalse();
+    @Value("${jobs.cron.min-interval-seconds:3600}")
+    private long cronMinIntervalSeconds;
 
-        for (Post post : posts) {
-            int postLikesCount = postLikeRepository.countLikesByPostId(post.getId());
-            int postViewsCount = post.getViewsCount();
+    /**
+     * Makes sure the global maxima used for normalization exist before the first rating event.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initRatingStats() {
+        postRatingStatsRepository.initMaxima();
+    }
 
-            double averageGrade = reviewRepository.findAverageGradeByPostId(post.getId()).orElse(1.0);
+    /**
+     * Re-rates posts whose grades, likes or views just changed, using their running aggregates.
+     * The global maxima are raised in the same statement when one of the posts exceeds them.
+     *
+     * @param postIds IDs of the changed posts.
+     */
+    public void refreshRatings(Collection<Integer> postIds) {
+        if (postIds.isEmpty()) {
+            return;
+        }
+        postRepository.refreshRatings(postIds);
+    }
 
-            double normalizedLikes = maxLikes > 0 ? 1 + ((double) postLikesCount / maxLikes) * 4 : 1;
-            double normalizedViews = maxViews > 0 ? 1 + ((double) postViewsCount / maxViews) * 4 : 1;
+    /**
+     * Consistency check for the incremental ratings: recomputes the exact maxima (which events
+     * only ever raise), repairs drifted grade aggregates and re-rates changed posts.
+     * The post ID range is split into shards leased separately, so replicas share the work.
+     */
+    @Scheduled(cron = "${task.rating.cron}")
+    public void updatePostRatings() {
+        Duration minInterval = Duration.ofSeconds(cronMinIntervalSeconds);
+
+        jobCoordinator.runExclusive("paste.rating-maxima", minInterval, run -> postRatingStatsRepository.recomputeMaxima(run.leaseName(), run.fencingToken()));
+
+        int maxId = postRepository.findMaxId();
+        jobCoordinator.runSharded("paste.rating-check", shards, minInterval, (run, shard) -> {
+            int fromId = (int) ((long) maxId * shard / shards);
+            int toId = shard == shards - 1 ? Integer.MAX_VALUE : (int) ((long) maxId * (shard + 1) / shards);
+            checkRatingsInRange(run, fromId, toId);
+        });
+    }
 
-            int newRating = (int) Math.round(0.7 * averageGrade + 0.2 * normalizedLikes + 0.1 * normalizedViews);
-            newRating = Math.max(1, Math.min(5, newRating));
+    /**
+     * Checks the posts with IDs in (fromId, toId] in keyset chunks, each committing on its own.
+     */
+    private void checkRatingsInRange(JobCoordinator.JobRun run, int fromId, int toId) {
+        customLog.info(CUSTOM_LOG_MARKER, "Starting post rating consistency check for IDs ({}, {}]...", fromId, toId);
 
-            post.setRating(newRating);
-            customLog.info(CUSTOM_LOG_MARKER, "Updated post ID {}: rating = {}", post.getId(), newRating);
+        int afterId = fromId;
+        int repaired = 0;
+        int updated = 0;
+        Integer upToId;
+        while (afterId < toId && (upToId = postRepository.findChunkUpperId(afterId, chunkSize)) != null) {
+            run.checkpoint();
+            upToId = Math.min(upToId, toId);
+            repaired += postRepository.reconcileGradesInRange(afterId, upToId, run.leaseName(), run.fencingToken());
+            updated += postRepository.updateRatingsInRange(afterId, upToId, RATING_CHANGE, run.leaseName(), run.fencingToken());
+            afterId = upToId;
         }
 
-        postRepository.saveAll(posts);
-        customLog.info(CUSTOM_LOG_MARKER, "Post rating update completed.");
+        customLog.info(CUSTOM_LOG_MARKER, "Post rating consistency check for IDs ({}, {}] completed, {} grade aggregates repaired, {} ratings changed.",
+                fromId, toId, repaired, updated);
     }
 }
@@ -0,0 +1,56 @@
+package com.raul.paste_service.utils;
+
+import java.util.Locale;
+
+/**
+ * Reads Accept-Encoding headers (RFC 9110, section 12.5.3).
+ */
+public class AcceptEncodingUtils {
+
+    /**
+     * Checks whether a content coding is acceptable. An explicit entry for the coding wins over
+     * the "*" wildcard, and a quality of 0 means "not acceptable".
+     *
+     * @param acceptEncoding Header value, or null.
+     * @param coding         Content coding, such as gzip.
+     * @return True if the coding is accepted with a non-zero quality.
+     */
+    public static boolean accepts(String acceptEncoding, String coding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+
+        Double explicit = null;
+        Double wildcard = null;
+        for (String entry : acceptEncoding.split(",")) {
+            String[] parts = entry.split(";");
+            String name = parts[0].trim().toLowerCase(Locale.ROOT);
+            if (name.equals(coding.toLowerCase(Locale.ROOT))) {
+                explicit = quality(parts);
+            } else if (name.equals("*")) {
+                wildcard = quality(parts);
+            }
+        }
+
+        Double quality = explicit != null ? explicit : wildcard;
+        return quality != null && quality > 0;
+    }
+
+    /**
+     * @return Quality of an entry: its q parameter, 1 if it has none, 0 if the parameter is malformed.
+     */
+    private static double quality(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String[] parameter = parts[i].split("=", 2);
+            if (parameter.length == 2 && parameter[0].trim().equalsIgnoreCase("q")) {
+                try {
+                    double q = Double.parseDouble(parameter[1].trim());
+                    return q >= 0 && q <= 1 ? q : 0;
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+}
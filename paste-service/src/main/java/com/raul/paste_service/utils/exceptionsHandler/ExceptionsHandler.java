@@ -10,6 +10,7 @@ import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
 import java.util.HashMap;
 
@@ -42,6 +43,11 @@ public class ExceptionsHandler {
         return ResponseEntity.status(BAD_REQUEST).body(e.getMessage());
     }
 
+    @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+    public ResponseEntity<String> handle(MethodArgumentTypeMismatchException e) {
+        return ResponseEntity.status(BAD_REQUEST).body("Invalid value of " + e.getName() + ": " + e.getValue());
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ErrorResponse> handle(MethodArgumentNotValidException e) {
         var errors = new HashMap<String, String>();
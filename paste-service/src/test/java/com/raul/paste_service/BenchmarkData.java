@@ -0,0 +1,53 @@
+package com.raul.paste_service;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.UUID;
+
+/**
+ * Seeds and removes the rows the database benchmarks run against. Everything hangs off one
+ * throwaway user, so deleting that user's posts cleans up after a run.
+ */
+public final class BenchmarkData {
+
+    /**
+     * Rows one run can seed: each post's hash is six hex digits of its sequence number.
+     */
+    private static final int MAX_POSTS = 0xFFFFFF;
+
+    private BenchmarkData() {
+    }
+
+    public static int createUser(JdbcTemplate jdbcTemplate) {
+        String name = "benchmark-" + UUID.randomUUID();
+        return jdbcTemplate.queryForObject(
+                "INSERT INTO users (first_name, last_name, email, password_hash, role) " +
+                "VALUES ('Bench', 'Mark', ?, 'x', 'USER') RETURNING id",
+                Integer.class, name + "@example.com");
+    }
+
+    /**
+     * Inserts posts with random likes and views in one set-based statement. Hashes are built to fit
+     * posts.hash: a '~' no generated hash contains, one hex digit of the user ID so concurrent runs
+     * rarely share a prefix, and the sequence number. Runs that do share one fail on the unique index.
+     */
+    public static void createPosts(JdbcTemplate jdbcTemplate, int userId, int count) {
+        if (count > MAX_POSTS) {
+            throw new IllegalArgumentException("At most " + MAX_POSTS + " benchmark posts per run, got " + count);
+        }
+
+        String hashPrefix = "~" + Integer.toHexString(userId & 0xF);
+        jdbcTemplate.update(
+                "INSERT INTO posts (title, slug, summary, hash, user_id, rating, grade_sum, grade_count, " +
+                "likes_count, views_count, unique_viewers_count, created_at, updated_at, indexed_at, is_deleted) " +
+                "SELECT 'benchmark', 'benchmark-' || ? || '-' || g, 'benchmark', ? || lpad(to_hex(g), 6, '0'), ?, 0, 0, 0, " +
+                "(random() * 1000)::int, (random() * 100000)::int, 0, now(), now(), now(), false " +
+                "FROM generate_series(1, ?) AS g",
+                userId, hashPrefix, userId, count);
+    }
+
+    public static void deleteUser(JdbcTemplate jdbcTemplate, int userId) {
+        jdbcTemplate.update("DELETE FROM posts WHERE user_id = ?", userId);
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", userId);
+    }
+}
@@ -0,0 +1,104 @@
+package com.raul.paste_service.configs;
+
+import com.raul.paste_service.BenchmarkData;
+import com.raul.paste_service.dto.notification.EmailNotificationSubject;
+import com.raul.paste_service.models.SentPostNotification;
+import com.raul.paste_service.repositories.SentPostNotificationRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Write throughput of the notification rows an expiry batch stores, in rows/sec: once through
+ * saveAll with pooled ids and JDBC batching, and once one INSERT ... RETURNING id per row, which is
+ * what IDENTITY ids made Hibernate do. Needs the database from docker-compose; run with
+ * {@code ./mvnw test -Dtest=JpaBatchingBenchmarkTest -Dbenchmarks=true [-Dbenchmark.rows=50000]}.
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class JpaBatchingBenchmarkTest {
+
+    private static final int POSTS = 100;
+
+    @Autowired
+    private SentPostNotificationRepository sentPostNotificationRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private int userId;
+    private List<Integer> postIds;
+
+    @BeforeEach
+    void seed() {
+        userId = BenchmarkData.createUser(jdbcTemplate);
+        BenchmarkData.createPosts(jdbcTemplate, userId, POSTS);
+        postIds = jdbcTemplate.queryForList("SELECT id FROM posts WHERE user_id = ?", Integer.class, userId);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM sent_notification WHERE post_id IN (SELECT id FROM posts WHERE user_id = ?)", userId);
+        BenchmarkData.deleteUser(jdbcTemplate, userId);
+    }
+
+    @Test
+    void batchedInsertsOutrunRowByRowInserts() {
+        int rows = Integer.getInteger("benchmark.rows", 50_000);
+        LocalDateTime now = LocalDateTime.now();
+
+        // Warm up both paths so the comparison does not include class loading and pool start-up.
+        insertRowByRow(1_000, now);
+        insertBatched(1_000, now);
+
+        long started = System.nanoTime();
+        insertRowByRow(rows, now);
+        double rowByRowPerSecond = rows / ((System.nanoTime() - started) / 1e9);
+
+        started = System.nanoTime();
+        insertBatched(rows, now);
+        double batchedPerSecond = rows / ((System.nanoTime() - started) / 1e9);
+
+        System.out.printf("%d notification rows: row by row %.0f rows/s, batched %.0f rows/s (x%.1f)%n",
+                rows, rowByRowPerSecond, batchedPerSecond, batchedPerSecond / rowByRowPerSecond);
+
+        assertThat(batchedPerSecond).isGreaterThan(rowByRowPerSecond);
+    }
+
+    private void insertBatched(int rows, LocalDateTime now) {
+        List<SentPostNotification> notifications = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            notifications.add(SentPostNotification.builder()
+                    .postId(postIds.get(i % postIds.size()))
+                    .notificationType(EmailNotificationSubject.POST_EXPIRATION_NOTIFICATION)
+                    .sendAt(now)
+                    .build());
+        }
+        transactionTemplate.executeWithoutResult(status -> sentPostNotificationRepository.saveAll(notifications));
+    }
+
+    private void insertRowByRow(int rows, LocalDateTime now) {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < rows; i++) {
+                jdbcTemplate.queryForObject(
+                        "INSERT INTO sent_notification (post_id, notification_type, send_at) VALUES (?, ?, ?) RETURNING id",
+                        Integer.class, postIds.get(i % postIds.size()),
+                        EmailNotificationSubject.POST_EXPIRATION_NOTIFICATION.name(), now);
+            }
+        });
+    }
+}
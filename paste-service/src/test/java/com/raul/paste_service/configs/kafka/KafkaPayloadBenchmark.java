@@ -0,0 +1,49 @@
+package com.raul.paste_service.configs.kafka;
+
+import com.raul.paste_service.dto.post.PostIndexDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization and deserialization cost of a full post index document per payload format.
+ * Run through {@link KafkaPayloadBenchmarkTest}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class KafkaPayloadBenchmark {
+
+    @Param({"json", "smile"})
+    public String format;
+
+    private KafkaPayloadCodec codec;
+    private PostIndexDto post;
+    private byte[] payload;
+
+    @Setup
+    public void setUp() {
+        codec = KafkaPayloads.codec(format, new SimpleMeterRegistry());
+        post = KafkaPayloads.postIndex();
+        payload = codec.encode("post_index_topic_v2", post);
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return codec.encode("post_index_topic_v2", post);
+    }
+
+    @Benchmark
+    public PostIndexDto deserialize() throws IOException {
+        return codec.mapper().readValue(payload, PostIndexDto.class);
+    }
+}
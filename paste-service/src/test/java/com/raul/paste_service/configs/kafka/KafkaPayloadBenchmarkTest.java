@@ -0,0 +1,50 @@
+package com.raul.paste_service.configs.kafka;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.util.Collection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares JSON and Smile payloads of a full post index document: size, and serialization and
+ * deserialization time measured with JMH. Needs no infrastructure; run with
+ * {@code ./mvnw test -Dtest=KafkaPayloadBenchmarkTest -Dbenchmarks=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class KafkaPayloadBenchmarkTest {
+
+    @Test
+    void comparesPayloadFormats() throws Exception {
+        int jsonBytes = KafkaPayloads.codec("json", new SimpleMeterRegistry()).encode("post_index_topic_v2", KafkaPayloads.postIndex()).length;
+        int smileBytes = KafkaPayloads.codec("smile", new SimpleMeterRegistry()).encode("post_index_topic_v2", KafkaPayloads.postIndex()).length;
+        System.out.printf("payload size: json %d bytes, smile %d bytes (%.0f%%)%n",
+                jsonBytes, smileBytes, 100.0 * smileBytes / jsonBytes);
+
+        Options options = new OptionsBuilder()
+                .include(KafkaPayloadBenchmark.class.getName())
+                .forks(1)
+                .warmupIterations(3)
+                .warmupTime(TimeValue.seconds(1))
+                .measurementIterations(5)
+                .measurementTime(TimeValue.seconds(1))
+                .build();
+        Collection<RunResult> results = new Runner(options).run();
+
+        for (RunResult result : results) {
+            System.out.printf("%-12s %-6s %10.1f ns/op%n",
+                    result.getParams().getBenchmark().replaceAll(".*\\.", ""),
+                    result.getParams().getParam("format"),
+                    result.getPrimaryResult().getScore());
+        }
+        assertThat(results).hasSize(4);
+        assertThat(smileBytes).isLessThan(jsonBytes);
+    }
+}
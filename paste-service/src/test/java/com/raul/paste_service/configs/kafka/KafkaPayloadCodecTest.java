@@ -0,0 +1,65 @@
+package com.raul.paste_service.configs.kafka;
+
+import com.raul.common.kafka.CompactJsonDeserializer;
+import com.raul.paste_service.dto.post.PostIndexDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KafkaPayloadCodecTest {
+
+    private static final String TOPIC = "post_index_topic_v2";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void roundTripsJson() throws Exception {
+        KafkaPayloadCodec codec = KafkaPayloads.codec("json", meterRegistry);
+        PostIndexDto post = KafkaPayloads.postIndex();
+
+        byte[] payload = codec.encode(TOPIC, post);
+
+        assertThat(codec.mapper().readValue(payload, PostIndexDto.class)).isEqualTo(post);
+        assertThat(consumerRead(payload)).isEqualTo(post);
+    }
+
+    @Test
+    void roundTripsSmile() throws Exception {
+        KafkaPayloadCodec codec = KafkaPayloads.codec("smile", meterRegistry);
+        PostIndexDto post = KafkaPayloads.postIndex();
+
+        byte[] payload = codec.encode(TOPIC, post);
+
+        assertThat(new String(payload, 0, 3, StandardCharsets.ISO_8859_1)).isEqualTo(":)\n");
+        assertThat(codec.mapper().readValue(payload, PostIndexDto.class)).isEqualTo(post);
+        assertThat(consumerRead(payload)).isEqualTo(post);
+    }
+
+    @Test
+    void transcodesStoredJsonToSmile() {
+        PostIndexDto post = KafkaPayloads.postIndex();
+        String stored = new String(KafkaPayloads.codec("json", meterRegistry).encode(TOPIC, post), StandardCharsets.UTF_8);
+
+        byte[] payload = KafkaPayloads.codec("smile", meterRegistry).transcode(TOPIC, stored);
+
+        assertThat(consumerRead(payload)).isEqualTo(post);
+        assertThat(payload.length).isLessThan(stored.length());
+        assertThat(meterRegistry.get("kafka.producer.payload.bytes").tags("topic", TOPIC, "format", "smile").summary().totalAmount())
+                .isEqualTo(payload.length);
+    }
+
+    private static Object consumerRead(byte[] payload) {
+        try (CompactJsonDeserializer deserializer = new CompactJsonDeserializer()) {
+            deserializer.configure(Map.of(
+                    JsonDeserializer.VALUE_DEFAULT_TYPE, PostIndexDto.class.getName(),
+                    JsonDeserializer.USE_TYPE_INFO_HEADERS, false,
+                    JsonDeserializer.TRUSTED_PACKAGES, "com.raul.paste_service.dto.post"), false);
+            return deserializer.deserialize(TOPIC, payload);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.raul.paste_service.configs.kafka;
+
+import com.raul.paste_service.dto.post.PostIndexDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Sample payloads for the codec tests and benchmarks.
+ */
+final class KafkaPayloads {
+
+    private KafkaPayloads() {
+    }
+
+    static KafkaPayloadCodec codec(String format, MeterRegistry meterRegistry) {
+        KafkaPayloadCodec codec = new KafkaPayloadCodec(meterRegistry);
+        ReflectionTestUtils.setField(codec, "format", format);
+        return codec;
+    }
+
+    /**
+     * @return Full index document of a typical post, with a body of about 2 KB.
+     */
+    static PostIndexDto postIndex() {
+        LocalDateTime createdAt = LocalDateTime.of(2024, 5, 1, 12, 30);
+        return new PostIndexDto(
+                PostIndexDto.SCHEMA_VERSION,
+                123_456,
+                "Configuring a Kafka producer for throughput",
+                "configuring-a-kafka-producer-for-throughput",
+                "linger.ms=20 batch.size=131072 compression.type=lz4 acks=all\n".repeat(34),
+                "Producer settings that trade a little latency for much larger batches.",
+                List.of("kafka", "java", "performance"),
+                "aZ3kP9qL",
+                42,
+                4,
+                1_280,
+                56_013,
+                createdAt,
+                createdAt.plusDays(2),
+                createdAt.plusDays(30),
+                false
+        );
+    }
+}
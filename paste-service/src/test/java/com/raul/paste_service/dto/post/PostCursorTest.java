@@ -0,0 +1,60 @@
+package com.raul.paste_service.dto.post;
+
+import jakarta.ws.rs.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PostCursorTest {
+
+    @Test
+    void roundTripsThePositionOfARow() {
+        PostKeysetView row = mock(PostKeysetView.class);
+        when(row.getCreatedAt()).thenReturn(LocalDateTime.of(2024, 5, 1, 12, 30, 15, 123_456_000));
+        when(row.getCursorId()).thenReturn(42);
+
+        PostCursor cursor = PostCursor.of(row);
+
+        assertThat(PostCursor.decode(cursor.encode())).isEqualTo(new PostCursor(row.getCreatedAt(), 42));
+    }
+
+    @Test
+    void roundTripsTimestampsWithoutSeconds() {
+        PostCursor cursor = new PostCursor(LocalDateTime.of(2024, 5, 1, 12, 30), 7);
+
+        assertThat(PostCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    @Test
+    void encodesUrlSafeTokensWithoutPadding() {
+        String token = new PostCursor(LocalDateTime.of(2024, 5, 1, 12, 30, 15), Integer.MAX_VALUE).encode();
+
+        assertThat(token).doesNotContain("+", "/", "=");
+    }
+
+    @Test
+    void startsAtTheFirstPageWithoutAToken() {
+        assertThat(PostCursor.decode(null)).isEqualTo(PostCursor.START);
+        assertThat(PostCursor.decode("")).isEqualTo(PostCursor.START);
+        assertThat(PostCursor.decode("  ")).isEqualTo(PostCursor.START);
+    }
+
+    @Test
+    void rejectsMalformedTokens() {
+        assertThatThrownBy(() -> PostCursor.decode("not base64!")).isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> PostCursor.decode(token("2024-05-01T12:30"))).isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> PostCursor.decode(token("yesterday|42"))).isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> PostCursor.decode(token("2024-05-01T12:30|forty-two"))).isInstanceOf(BadRequestException.class);
+    }
+
+    private static String token(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,40 @@
+package com.raul.paste_service.dto.post;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PostIndexChangeTest {
+
+    @Test
+    void noChangesMeansAFullRebuild() {
+        assertThat(PostIndexChange.fromBits(PostIndexChange.toBits())).containsExactly(PostIndexChange.FULL);
+    }
+
+    @Test
+    void packsAndUnpacksEveryCombination() {
+        for (int bits = 1; bits < 16; bits++) {
+            PostIndexChange[] changes = PostIndexChange.fromBits(bits).toArray(PostIndexChange[]::new);
+            assertThat(PostIndexChange.toBits(changes)).isEqualTo(bits);
+        }
+    }
+
+    @Test
+    void mergedMarksKeepEveryChange() {
+        int merged = PostIndexChange.toBits(PostIndexChange.STATUS)
+                | PostIndexChange.toBits(PostIndexChange.COUNTERS, PostIndexChange.RATING)
+                | PostIndexChange.toBits(PostIndexChange.RATING);
+
+        assertThat(PostIndexChange.fromBits(merged))
+                .isEqualTo(EnumSet.of(PostIndexChange.STATUS, PostIndexChange.COUNTERS, PostIndexChange.RATING));
+    }
+
+    @Test
+    void aFullRebuildSurvivesMergingWithPatches() {
+        int merged = PostIndexChange.toBits() | PostIndexChange.toBits(PostIndexChange.RATING);
+
+        assertThat(PostIndexChange.fromBits(merged)).contains(PostIndexChange.FULL, PostIndexChange.RATING);
+    }
+}
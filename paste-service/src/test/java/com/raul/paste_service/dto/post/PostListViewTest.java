@@ -0,0 +1,21 @@
+package com.raul.paste_service.dto.post;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PostListViewTest {
+
+    @Test
+    void readsViewNamesInAnyCase() {
+        assertThat(PostListView.from("full")).isEqualTo(PostListView.FULL);
+        assertThat(PostListView.from("Summary")).isEqualTo(PostListView.SUMMARY);
+        assertThat(PostListView.from(" SUMMARY ")).isEqualTo(PostListView.SUMMARY);
+    }
+
+    @Test
+    void rejectsUnknownViews() {
+        assertThatThrownBy(() -> PostListView.from("summaries")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,170 @@
+package com.raul.paste_service.services.cacheServices;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.raul.paste_service.dto.post.PostCacheEntry;
+import com.raul.paste_service.dto.post.PostResponseDto;
+import com.raul.paste_service.models.Post;
+import com.raul.paste_service.repositories.PostRepository;
+import com.raul.paste_service.services.postServices.PostContentService;
+import com.raul.paste_service.services.postServices.PostConverter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Answers;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisKeyCommands;
+import org.springframework.data.redis.connection.RedisScriptingCommands;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the cache against an in-memory stand-in for the Redis keys it uses, including the
+ * version check of the conditional put script.
+ */
+@SuppressWarnings("unchecked")
+class PostCacheServiceTest {
+
+    private static final int POST_ID = 1;
+
+    private final PostRepository postRepository = mock(PostRepository.class);
+    private final PostConverter converter = mock(PostConverter.class);
+    private final RedisTemplate<String, PostCacheEntry> postCacheRedisTemplate = mock(RedisTemplate.class);
+    private final RedisTemplate<String, String> stringRedisTemplate = mock(RedisTemplate.class);
+    private final Cache<Integer, PostCacheEntry> localPostCache = Caffeine.newBuilder().build();
+    private final Map<String, String> redis = new ConcurrentHashMap<>();
+    private final Post post = Post.builder().id(POST_ID).build();
+    private PostCacheService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new PostCacheService(postRepository, converter, mock(PostContentService.class), localPostCache,
+                Caffeine.newBuilder().build(), postCacheRedisTemplate, stringRedisTemplate,
+                mock(RedisMessageListenerContainer.class), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "redisTtlSeconds", 60L);
+        ReflectionTestUtils.setField(service, "versionTtlSeconds", 86400L);
+        service.init();
+
+        when(converter.convertToPostCacheEntry(any(), any())).thenReturn(
+                new PostCacheEntry(POST_ID, "aZ3kP9qL", "post", 7, null, new PostResponseDto(), false));
+
+        ValueOperations<String, String> strings = mock(ValueOperations.class);
+        when(stringRedisTemplate.opsForValue()).thenReturn(strings);
+        when(strings.get(anyString())).thenAnswer(invocation -> redis.get(invocation.<String>getArgument(0)));
+        when(strings.multiGet(anyCollection())).thenAnswer(invocation ->
+                invocation.<Collection<String>>getArgument(0).stream().map(redis::get).toList());
+        when(stringRedisTemplate.executePipelined(any(RedisCallback.class))).thenAnswer(invocation -> {
+            RedisConnection connection = mock(RedisConnection.class);
+            when(connection.stringCommands()).thenReturn(mock(RedisStringCommands.class, incr -> {
+                if (!incr.getMethod().getName().equals("incr")) {
+                    return Answers.RETURNS_DEFAULTS.answer(incr);
+                }
+                return Long.valueOf(redis.merge(key(incr.getArgument(0)), "1",
+                        (current, one) -> String.valueOf(Long.parseLong(current) + 1)));
+            }));
+            when(connection.keyCommands()).thenReturn(mock(RedisKeyCommands.class));
+            invocation.<RedisCallback<Object>>getArgument(0).doInRedis(connection);
+            return List.of();
+        });
+
+        when(postCacheRedisTemplate.opsForValue()).thenReturn(mock(ValueOperations.class));
+        doReturn(mock(RedisSerializer.class)).when(postCacheRedisTemplate).getValueSerializer();
+        when(postCacheRedisTemplate.delete(anyCollection())).thenAnswer(invocation -> {
+            invocation.<Collection<String>>getArgument(0).forEach(redis::remove);
+            return 1L;
+        });
+        when(postCacheRedisTemplate.executePipelined(any(RedisCallback.class))).thenAnswer(invocation -> {
+            List<Object> results = new ArrayList<>();
+            RedisConnection connection = mock(RedisConnection.class);
+            when(connection.scriptingCommands()).thenReturn(mock(RedisScriptingCommands.class, eval -> {
+                results.add(putIfUnchanged(eval.getArguments()));
+                return null;
+            }));
+            invocation.<RedisCallback<Object>>getArgument(0).doInRedis(connection);
+            return results;
+        });
+    }
+
+    @Test
+    void cachesPostsReadOnAMiss() {
+        when(postRepository.findByIdAndIsDeletedFalse(POST_ID)).thenReturn(Optional.of(post));
+
+        assertThat(service.getById(POST_ID).id()).isEqualTo(POST_ID);
+
+        assertThat(localPostCache.getIfPresent(POST_ID)).isNotNull();
+        assertThat(redis).containsKey(PostCacheKeys.byId(POST_ID));
+    }
+
+    @Test
+    void doesNotCacheAPostInvalidatedWhileItWasRead() {
+        when(postRepository.findByIdAndIsDeletedFalse(POST_ID)).thenAnswer(invocation -> {
+            // A delete commits after the read but before the entry is written back.
+            service.evict(POST_ID);
+            return Optional.of(post);
+        });
+
+        service.getById(POST_ID);
+
+        assertThat(localPostCache.getIfPresent(POST_ID)).isNull();
+        assertThat(redis).doesNotContainKey(PostCacheKeys.byId(POST_ID));
+    }
+
+    @Test
+    void checksVersionsWhenLoadingByAlias() {
+        when(postRepository.findIdByHash("aZ3kP9qL")).thenReturn(Optional.of(POST_ID));
+        when(postRepository.findByIdAndIsDeletedFalse(POST_ID)).thenAnswer(invocation -> {
+            service.evict(POST_ID);
+            return Optional.of(post);
+        });
+
+        service.getByHash("aZ3kP9qL");
+
+        assertThat(localPostCache.getIfPresent(POST_ID)).isNull();
+        assertThat(redis).doesNotContainKey(PostCacheKeys.byId(POST_ID));
+    }
+
+    /**
+     * Same check as the Lua script: write the entry only if the version key still holds the expected value.
+     */
+    private Long putIfUnchanged(Object[] arguments) {
+        List<byte[]> keysAndArgs = new ArrayList<>();
+        for (int i = 3; i < arguments.length; i++) {
+            if (arguments[i] instanceof byte[][] values) {
+                keysAndArgs.addAll(List.of(values));
+            } else {
+                keysAndArgs.add((byte[]) arguments[i]);
+            }
+        }
+        String versionKey = key(keysAndArgs.get(3));
+        if (!redis.getOrDefault(versionKey, "").equals(key(keysAndArgs.get(6)))) {
+            return 0L;
+        }
+        redis.put(key(keysAndArgs.get(0)), "entry");
+        return 1L;
+    }
+
+    private static String key(byte[] bytes) {
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,142 @@
+package com.raul.paste_service.services.outboxServices;
+
+import com.raul.paste_service.configs.kafka.KafkaPayloadCodec;
+import com.raul.paste_service.dto.post.PendingPostIndexView;
+import com.raul.paste_service.dto.post.PostIndexChange;
+import com.raul.paste_service.models.OutboxEvent;
+import com.raul.paste_service.models.Post;
+import com.raul.paste_service.repositories.OutboxEventRepository;
+import com.raul.paste_service.repositories.PendingPostIndexRepository;
+import com.raul.paste_service.repositories.PostRepository;
+import com.raul.paste_service.services.kafkaServices.KafkaSendMetrics;
+import com.raul.paste_service.services.postServices.PostContentService;
+import com.raul.paste_service.services.postServices.PostConverter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SuppressWarnings("unchecked")
+class OutboxServiceTest {
+
+    private static final String TOPIC = OutboxService.NOTIFICATION_TOPIC;
+
+    private final OutboxEventRepository outboxEventRepository = mock(OutboxEventRepository.class);
+    private final PendingPostIndexRepository pendingPostIndexRepository = mock(PendingPostIndexRepository.class);
+    private final PostRepository postRepository = mock(PostRepository.class);
+    private final PostConverter converter = mock(PostConverter.class);
+    private final KafkaTemplate<String, byte[]> kafkaTemplate = mock(KafkaTemplate.class);
+    private final KafkaSendMetrics kafkaSendMetrics = mock(KafkaSendMetrics.class);
+    private final KafkaPayloadCodec kafkaPayloadCodec = mock(KafkaPayloadCodec.class);
+    private final List<Long> sentIds = new ArrayList<>();
+    private OutboxService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new OutboxService(outboxEventRepository, pendingPostIndexRepository, postRepository,
+                converter, mock(PostContentService.class), kafkaTemplate, kafkaPayloadCodec,
+                kafkaSendMetrics, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "sendTimeoutSeconds", 1L);
+        ReflectionTestUtils.setField(service, "indexMaxAttempts", 10);
+        ReflectionTestUtils.setField(service, "indexRetryDelaySeconds", 5L);
+
+        when(kafkaPayloadCodec.transcode(anyString(), anyString())).thenAnswer(invocation ->
+                ((String) invocation.getArgument(1)).getBytes());
+        when(kafkaSendMetrics.track(anyString(), any())).thenAnswer(invocation -> invocation.getArgument(1));
+    }
+
+    @Test
+    void holdsBackTheRestOfAKeyAfterAFailedEvent() {
+        when(outboxEventRepository.findNextBatch(anyInt())).thenReturn(List.of(
+                event(1, "a", "fail"), event(2, "b", "ok"), event(3, "a", "ok"), event(4, "b", "ok")));
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenAnswer(invocation -> {
+            ProducerRecord<String, byte[]> record = invocation.getArgument(0);
+            String payload = new String(record.value());
+            sentIds.add(Long.valueOf(payload.substring(payload.indexOf(':') + 1)));
+            if (payload.startsWith("fail")) {
+                return CompletableFuture.failedFuture(new IllegalStateException("broker unavailable"));
+            }
+            return CompletableFuture.completedFuture(new SendResult<>(record,
+                    new RecordMetadata(new TopicPartition(TOPIC, 0), 0, 0, 0, 0, 0)));
+        });
+
+        int relayed = service.relayBatch(10);
+
+        assertThat(relayed).isEqualTo(2);
+        assertThat(sentIds).containsExactly(1L, 2L, 4L);
+        verify(outboxEventRepository).deleteAllByIdInBatch(List.of(2L, 4L));
+    }
+
+    @Test
+    void sendsNothingWhenTheOutboxIsEmpty() {
+        when(outboxEventRepository.findNextBatch(anyInt())).thenReturn(List.of());
+
+        assertThat(service.relayBatch(10)).isZero();
+        verify(outboxEventRepository, never()).deleteAllByIdInBatch(anyList());
+    }
+
+    @Test
+    void settlesEachIndexMarkOnItsOwn() {
+        List<PendingPostIndexView> marks = List.of(mark(1, 7L), mark(2, 8L), mark(3, 9L));
+        when(pendingPostIndexRepository.findNextBatch(anyInt())).thenReturn(marks);
+        when(postRepository.findAllByIdIn(anyCollection())).thenReturn(List.of(
+                Post.builder().id(1).build(), Post.builder().id(2).build()));
+        when(converter.convertToPostIndex(any(Post.class), anyString())).thenAnswer(invocation -> {
+            Post post = invocation.getArgument(0);
+            if (post.getId() == 1) {
+                throw new IllegalStateException("broken post");
+            }
+            return null;
+        });
+        when(kafkaPayloadCodec.encode(anyString(), any())).thenReturn(new byte[0]);
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenAnswer(invocation ->
+                CompletableFuture.completedFuture(new SendResult<>(invocation.getArgument(0), null)));
+        when(pendingPostIndexRepository.markFailed(any(), any(), anyLong(), anyInt())).thenReturn(List.of());
+
+        assertThat(service.relayPostIndexBatch(10)).isEqualTo(3);
+
+        verify(pendingPostIndexRepository).deleteRelayed(new Integer[]{2, 3}, new Long[]{8L, 9L});
+        verify(pendingPostIndexRepository).markFailed(new Integer[]{1}, new Long[]{7L}, 5L, 10);
+    }
+
+    private static PendingPostIndexView mark(int postId, long version) {
+        PendingPostIndexView mark = mock(PendingPostIndexView.class);
+        when(mark.getPostId()).thenReturn(postId);
+        when(mark.getChanges()).thenReturn(PostIndexChange.toBits(PostIndexChange.FULL));
+        when(mark.getVersion()).thenReturn(version);
+        return mark;
+    }
+
+    private static OutboxEvent event(long id, String key, String outcome) {
+        return OutboxEvent.builder()
+                .id(id)
+                .topic(TOPIC)
+                .messageKey(key)
+                .typeId("emailNotificationDto")
+                .payload(outcome + ":" + id)
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,86 @@
+package com.raul.paste_service.services.postServices;
+
+import com.raul.paste_service.repositories.PostRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class HashGenerationServiceTest {
+
+    private final PostRepository postRepository = mock(PostRepository.class);
+    private final HashKeyPoolService hashKeyPoolService = mock(HashKeyPoolService.class);
+    private HashGenerationService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new HashGenerationService(postRepository, hashKeyPoolService);
+        ReflectionTestUtils.setField(service, "localBatchSize", 3);
+        ReflectionTestUtils.setField(service, "localLowWatermark", 0);
+        when(hashKeyPoolService.claimAsync(anyInt())).thenReturn(CompletableFuture.completedFuture(List.of()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void buffersTheRestOfAClaimedBatchOutsideTransactions() {
+        when(hashKeyPoolService.claim(3)).thenReturn(List.of("a", "b", "c"));
+
+        assertThat(service.generateUniqueHash()).isEqualTo("a");
+        assertThat(service.generateUniqueHash()).isEqualTo("b");
+        assertThat(service.generateUniqueHash()).isEqualTo("c");
+        verify(hashKeyPoolService, times(1)).claim(3);
+    }
+
+    @Test
+    void buffersClaimedHashesOnlyAfterCommit() {
+        when(hashKeyPoolService.claim(3)).thenReturn(List.of("a", "b", "c"), List.of("d", "e", "f"));
+
+        TransactionSynchronizationManager.initSynchronization();
+        assertThat(service.generateUniqueHash()).isEqualTo("a");
+        completeTransaction(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        TransactionSynchronizationManager.initSynchronization();
+        assertThat(service.generateUniqueHash()).isEqualTo("d");
+        completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertThat(service.generateUniqueHash()).isEqualTo("e");
+        verify(hashKeyPoolService, times(2)).claim(3);
+    }
+
+    @Test
+    void fallsBackToCheckedRandomHashesWhenThePoolIsEmpty() {
+        when(hashKeyPoolService.claim(3)).thenReturn(List.of());
+        when(hashKeyPoolService.generateRandomHash()).thenReturn("taken", "free");
+        when(postRepository.existsByHash("taken")).thenReturn(true);
+        when(postRepository.existsByHash("free")).thenReturn(false);
+
+        assertThat(service.generateUniqueHash()).isEqualTo("free");
+    }
+
+    private static void completeTransaction(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        if (status == TransactionSynchronization.STATUS_COMMITTED) {
+            synchronizations.forEach(TransactionSynchronization::afterCommit);
+        }
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+}
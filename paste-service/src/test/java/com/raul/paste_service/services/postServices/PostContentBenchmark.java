@@ -0,0 +1,74 @@
+package com.raul.paste_service.services.postServices;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the body codec per paste size: compressing on create, and decompressing on reads that
+ * cannot be served as stored. Run through {@link PostContentBenchmarkTest}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PostContentBenchmark {
+
+    private static final String[] TOKENS = {
+            "public", "static", "final", "return", "if", "for", "while", "new", "String", "int", "List",
+            "Map", "null", "true", "false", "=", "==", "+", "(", ")", "{", "}", ";", ".", "get", "put",
+            "size", "value", "result", "count", "index", "user", "post", "config", "error", "log"
+    };
+
+    @Param({"2000", "50000"})
+    public int chars;
+
+    private byte[] raw;
+    private byte[] compressed;
+
+    @Setup
+    public void setUp() {
+        raw = paste(chars).getBytes(StandardCharsets.UTF_8);
+        compressed = PostContentService.gzip(raw);
+    }
+
+    @Benchmark
+    public byte[] compress() {
+        return PostContentService.gzip(raw);
+    }
+
+    @Benchmark
+    public byte[] decompress() {
+        return PostContentService.gunzip(compressed);
+    }
+
+    /**
+     * Code-like text with a fixed seed: short lines of identifiers and punctuation, with numbers
+     * and names that rarely repeat, so it compresses like a real paste rather than like a repeated string.
+     */
+    static String paste(int chars) {
+        Random random = new Random(42);
+        StringBuilder text = new StringBuilder(chars + 64);
+        while (text.length() < chars) {
+            text.append("    ".repeat(random.nextInt(4)));
+            int words = 3 + random.nextInt(8);
+            for (int i = 0; i < words; i++) {
+                text.append(TOKENS[random.nextInt(TOKENS.length)]);
+                if (random.nextInt(5) == 0) {
+                    text.append(random.nextInt(10_000));
+                }
+                text.append(' ');
+            }
+            text.append('\n');
+        }
+        return text.substring(0, chars);
+    }
+}
@@ -0,0 +1,52 @@
+package com.raul.paste_service.services.postServices;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compression ratio of stored paste bodies and the CPU cost of compressing and decompressing them,
+ * measured with JMH. Needs no infrastructure; run with
+ * {@code ./mvnw test -Dtest=PostContentBenchmarkTest -Dbenchmarks=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class PostContentBenchmarkTest {
+
+    @Test
+    void measuresTheBodyCodec() throws Exception {
+        for (int chars : new int[]{2_000, 50_000}) {
+            byte[] raw = PostContentBenchmark.paste(chars).getBytes(StandardCharsets.UTF_8);
+            byte[] compressed = PostContentService.gzip(raw);
+            System.out.printf("%6d chars: %6d bytes raw, %6d bytes gzip (ratio %.2f)%n",
+                    chars, raw.length, compressed.length, (double) compressed.length / raw.length);
+            assertThat(compressed.length).isLessThan(raw.length);
+        }
+
+        Options options = new OptionsBuilder()
+                .include(PostContentBenchmark.class.getName())
+                .forks(1)
+                .warmupIterations(3)
+                .warmupTime(TimeValue.seconds(1))
+                .measurementIterations(5)
+                .measurementTime(TimeValue.seconds(1))
+                .build();
+        Collection<RunResult> results = new Runner(options).run();
+
+        for (RunResult result : results) {
+            System.out.printf("%-10s %6s chars %10.1f us/op%n",
+                    result.getParams().getBenchmark().replaceAll(".*\\.", ""),
+                    result.getParams().getParam("chars"),
+                    result.getPrimaryResult().getScore());
+        }
+        assertThat(results).hasSize(4);
+    }
+}
@@ -0,0 +1,54 @@
+package com.raul.paste_service.services.postServices;
+
+import com.raul.paste_service.dto.post.PostCacheEntry;
+import com.raul.paste_service.models.Post;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class PostConverterTest {
+
+    private final Post post = Post.builder().id(1).hash("aZ3kP9qL").slug("post").userId(7).tags(new HashSet<>()).build();
+    private PostConverter converter;
+
+    @BeforeEach
+    void setUp() {
+        converter = new PostConverter(mock(HashGenerationService.class), mock(SlugGenerationService.class));
+        ReflectionTestUtils.setField(converter, "maxCachedContentChars", 10);
+        ReflectionTestUtils.setField(converter, "maxIndexedContentChars", 10);
+    }
+
+    @Test
+    void cachesShortBodies() {
+        PostCacheEntry entry = converter.convertToPostCacheEntry(post, "short");
+
+        assertThat(entry.contentOmitted()).isFalse();
+        assertThat(entry.response().getContent()).isEqualTo("short");
+    }
+
+    @Test
+    void leavesLargeBodiesOutOfTheCache() {
+        PostCacheEntry entry = converter.convertToPostCacheEntry(post, "a much longer body");
+
+        assertThat(entry.contentOmitted()).isTrue();
+        assertThat(entry.response().getContent()).isNull();
+    }
+
+    @Test
+    void indexesTheStartOfLargeBodies() {
+        assertThat(converter.convertToPostIndex(post, "a much longer body").content()).isEqualTo("a much lon");
+        assertThat(converter.convertToPostIndex(post, "short").content()).isEqualTo("short");
+    }
+
+    @Test
+    void neverSplitsASurrogatePair() {
+        String body = "123456789😀 and more";
+
+        assertThat(converter.convertToPostIndex(post, body).content()).isEqualTo("123456789");
+    }
+}
@@ -0,0 +1,163 @@
+package com.raul.paste_service.services.postServices;
+
+import com.raul.common.jobs.JobCoordinator;
+import com.raul.paste_service.repositories.PostRepository;
+import com.raul.paste_service.services.outboxServices.OutboxService;
+import com.raul.paste_service.services.schedulerServices.PostRatingService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.HyperLogLogOperations;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@SuppressWarnings("unchecked")
+class PostViewServiceTest {
+
+    private static final int VIEWER_THREADS = 4;
+    private static final int VIEWS_PER_THREAD = 20_000;
+    private static final int POSTS = 3;
+
+    private final RedisTemplate<String, String> redisTemplate = mock(RedisTemplate.class);
+    private final PostRepository postRepository = mock(PostRepository.class);
+    private final Map<Integer, AtomicLong> flushedViews = new ConcurrentHashMap<>();
+    private final Set<String> flushedViewers = ConcurrentHashMap.newKeySet();
+    private PostViewService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new PostViewService(redisTemplate, postRepository, mock(PostRatingService.class),
+                mock(OutboxService.class), mock(JobCoordinator.class));
+        ReflectionTestUtils.setField(service, "windowMinutes", 30L);
+        ReflectionTestUtils.setField(service, "flushMillis", 5000L);
+
+        when(postRepository.incrementViews(anyList(), anyList())).thenAnswer(invocation -> {
+            List<Integer> postIds = invocation.getArgument(0);
+            List<Integer> deltas = invocation.getArgument(1);
+            for (int i = 0; i < postIds.size(); i++) {
+                flushedViews.computeIfAbsent(postIds.get(i), id -> new AtomicLong()).addAndGet(deltas.get(i));
+            }
+            return postIds.size();
+        });
+
+        RedisOperations<String, String> operations = mock(RedisOperations.class);
+        HyperLogLogOperations<String, String> hyperLogLog = mock(HyperLogLogOperations.class);
+        when(operations.opsForHyperLogLog()).thenReturn(hyperLogLog);
+        when(operations.opsForSet()).thenReturn(mock(SetOperations.class));
+        when(operations.opsForZSet()).thenReturn(mock(ZSetOperations.class));
+        when(hyperLogLog.add(anyString(), any(String[].class))).thenAnswer(invocation -> {
+            for (Object argument : Arrays.copyOfRange(invocation.getArguments(), 1, invocation.getArguments().length)) {
+                if (argument instanceof Object[] values) {
+                    Arrays.stream(values).forEach(value -> flushedViewers.add((String) value));
+                } else {
+                    flushedViewers.add((String) argument);
+                }
+            }
+            return 1L;
+        });
+        when(redisTemplate.executePipelined(any(SessionCallback.class))).thenAnswer(invocation -> {
+            SessionCallback<Object> callback = invocation.getArgument(0);
+            callback.execute(operations);
+            return List.of();
+        });
+    }
+
+    @Test
+    void flushesEveryViewOnce() {
+        service.handleView(1, 100, 7, null);
+        service.handleView(1, 100, 8, null);
+        service.handleView(2, 100, 7, null);
+        service.flushViews();
+        service.flushViews();
+        service.handleView(1, 100, 9, null);
+        service.flushViews();
+
+        assertThat(flushedViews.get(1)).hasValue(3);
+        assertThat(flushedViews.get(2)).hasValue(1);
+    }
+
+    @Test
+    void ignoresViewsByTheAuthor() {
+        service.handleView(1, 100, 100, null);
+        service.flushViews();
+
+        assertThat(flushedViews).isEmpty();
+    }
+
+    @Test
+    void flushesViewersToTheirSketches() {
+        service.handleView(1, 100, 7, null);
+        service.handleView(1, 100, 7, null);
+        service.handleView(2, 100, 8, null);
+        service.flushViews();
+
+        assertThat(flushedViewers).containsExactlyInAnyOrder("userid:7", "userid:8");
+    }
+
+    @Test
+    void doesNotLoseViewsWhenFlushesRunConcurrently() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(VIEWER_THREADS + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean viewing = new AtomicBoolean(true);
+
+        try {
+            Future<?> flusher = executor.submit(() -> {
+                start.await();
+                while (viewing.get()) {
+                    service.flushViews();
+                }
+                return null;
+            });
+
+            List<Future<?>> viewers = new ArrayList<>();
+            for (int thread = 0; thread < VIEWER_THREADS; thread++) {
+                int viewerId = thread;
+                viewers.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < VIEWS_PER_THREAD; i++) {
+                        service.handleView(i % POSTS, -1, viewerId * VIEWS_PER_THREAD + i, null);
+                    }
+                    return null;
+                }));
+            }
+
+            start.countDown();
+            for (Future<?> viewer : viewers) {
+                viewer.get(30, TimeUnit.SECONDS);
+            }
+            viewing.set(false);
+            flusher.get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        service.flushViews();
+
+        long flushed = flushedViews.values().stream().mapToLong(AtomicLong::get).sum();
+        assertThat(flushed).isEqualTo((long) VIEWER_THREADS * VIEWS_PER_THREAD);
+        assertThat(flushedViewers).hasSize(VIEWER_THREADS * VIEWS_PER_THREAD);
+    }
+}
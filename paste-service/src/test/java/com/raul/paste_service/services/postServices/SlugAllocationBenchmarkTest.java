@@ -0,0 +1,57 @@
+package com.raul.paste_service.services.postServices;
+
+import com.raul.paste_service.repositories.SlugCounterRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Measures slug allocation, the part of post creation that used to grow with the number of posts
+ * sharing a title. Needs the database from docker-compose; run with
+ * {@code ./mvnw test -Dtest=SlugAllocationBenchmarkTest -Dbenchmarks=true}.
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class SlugAllocationBenchmarkTest {
+
+    private static final int ROUNDS = 6;
+    private static final int SLUGS_PER_ROUND = 2000;
+
+    @Autowired
+    private SlugGenerationService slugGenerationService;
+
+    @Autowired
+    private SlugCounterRepository slugCounterRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void allocationLatencyStaysFlatAsDuplicateTitlesPileUp() {
+        String title = "benchmark " + UUID.randomUUID();
+        double[] microsPerSlug = new double[ROUNDS];
+
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                long started = System.nanoTime();
+                for (int i = 0; i < SLUGS_PER_ROUND; i++) {
+                    transactionTemplate.execute(status -> slugGenerationService.generateUniqueSlug(title, false));
+                }
+                microsPerSlug[round] = (System.nanoTime() - started) / 1_000.0 / SLUGS_PER_ROUND;
+                System.out.printf("duplicates %6d..%6d: %8.1f us per slug%n",
+                        round * SLUGS_PER_ROUND, (round + 1) * SLUGS_PER_ROUND, microsPerSlug[round]);
+            }
+        } finally {
+            slugCounterRepository.deleteById(SlugGenerationService.toBaseSlug(title));
+        }
+
+        // Round 0 warms up the connection pool and the JIT.
+        assertThat(microsPerSlug[ROUNDS - 1]).isLessThan(microsPerSlug[1] * 2);
+    }
+}
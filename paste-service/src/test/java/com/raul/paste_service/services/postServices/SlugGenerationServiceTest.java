@@ -0,0 +1,55 @@
+package com.raul.paste_service.services.postServices;
+
+import com.raul.paste_service.repositories.SlugCounterRepository;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SlugGenerationServiceTest {
+
+    private final SlugCounterRepository slugCounterRepository = mock(SlugCounterRepository.class);
+    private final SlugGenerationService service = new SlugGenerationService(slugCounterRepository);
+
+    @Test
+    void lowercasesAndJoinsWordsWithSingleDashes() {
+        assertThat(SlugGenerationService.toBaseSlug("  Hello   World -- Again ")).isEqualTo("hello-world-again");
+    }
+
+    @Test
+    void stripsDiacriticsAndPunctuation() {
+        assertThat(SlugGenerationService.toBaseSlug("Crème Brûlée, v2!")).isEqualTo("creme-brulee-v2");
+    }
+
+    @Test
+    void fallsBackToDefaultBaseForEmptyResults() {
+        assertThat(SlugGenerationService.toBaseSlug(null)).isEqualTo("post");
+        assertThat(SlugGenerationService.toBaseSlug("?!*")).isEqualTo("post");
+    }
+
+    @Test
+    void capsTheBaseSoTheSuffixAlwaysFits() {
+        String base = SlugGenerationService.toBaseSlug("word ".repeat(100));
+
+        assertThat(base.length()).isLessThanOrEqualTo(100 - String.valueOf(Integer.MAX_VALUE).length() - 1);
+        assertThat(base).doesNotEndWith("-");
+    }
+
+    @Test
+    void appendsTheCounterSuffix() {
+        when(slugCounterRepository.nextSuffix("my-title")).thenReturn(7);
+
+        assertThat(service.generateUniqueSlug("My Title", false)).isEqualTo("my-title-7");
+        verify(slugCounterRepository, never()).nextSuffixAfterExisting("my-title");
+    }
+
+    @Test
+    void resynchronizesTheCounterAfterAConflict() {
+        when(slugCounterRepository.nextSuffixAfterExisting("my-title")).thenReturn(42);
+
+        assertThat(service.generateUniqueSlug("My Title", true)).isEqualTo("my-title-42");
+    }
+}
@@ -0,0 +1,89 @@
+package com.raul.paste_service.services.schedulerServices;
+
+import com.raul.common.jobs.JobCoordinator;
+import com.raul.paste_service.dto.post.PostPurgeDto;
+import com.raul.paste_service.repositories.PostRepository;
+import com.raul.paste_service.repositories.SentPostNotificationRepository;
+import com.raul.paste_service.services.cacheServices.PostCacheService;
+import com.raul.paste_service.services.outboxServices.OutboxService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PostCleanUpServiceTest {
+
+    private final PostRepository postRepository = mock(PostRepository.class);
+    private final PostCacheService postCacheService = mock(PostCacheService.class);
+    private final OutboxService outboxService = mock(OutboxService.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private final JobCoordinator jobCoordinator = mock(JobCoordinator.class);
+    private final JobCoordinator.JobRun run = mock(JobCoordinator.JobRun.class);
+    private PostCleanUpService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new PostCleanUpService(postRepository, mock(SentPostNotificationRepository.class), postCacheService,
+                outboxService, transactionTemplate, jobCoordinator);
+        ReflectionTestUtils.setField(service, "purgeBatchSize", 2);
+        ReflectionTestUtils.setField(service, "purgeRateMillis", 60_000L);
+
+        when(run.leaseName()).thenReturn("paste.purge-deleted-posts");
+        when(run.fencingToken()).thenReturn(7L);
+        when(jobCoordinator.runExclusive(anyString(), any(), any())).thenAnswer(invocation -> {
+            invocation.<Consumer<JobCoordinator.JobRun>>getArgument(2).accept(run);
+            return true;
+        });
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<Object>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    void storesThePurgeEventInTheBatchTransaction() {
+        when(postRepository.purgeDeletedBatch(any(), eq(2), eq("paste.purge-deleted-posts"), eq(7L))).thenReturn(List.of(1, 2));
+
+        service.removeAllDeletedPosts();
+
+        InOrder order = inOrder(transactionTemplate, postRepository, postCacheService, outboxService);
+        order.verify(transactionTemplate).execute(any());
+        order.verify(postRepository).purgeDeletedBatch(any(), eq(2), eq("paste.purge-deleted-posts"), eq(7L));
+        order.verify(postCacheService).evictAll(List.of(1, 2));
+        order.verify(outboxService).enqueuePurge(new PostPurgeDto(List.of(1, 2)));
+    }
+
+    @Test
+    void leavesTheRestOfAFullBatchToTheNextRun() {
+        when(postRepository.purgeDeletedBatch(any(), anyInt(), anyString(), anyLong())).thenReturn(List.of(1, 2));
+
+        service.removeAllDeletedPosts();
+
+        verify(postRepository, times(1)).purgeDeletedBatch(any(), anyInt(), anyString(), anyLong());
+    }
+
+    @Test
+    void storesNoEventWithoutPurgedPosts() {
+        when(postRepository.purgeDeletedBatch(any(), anyInt(), anyString(), anyLong())).thenReturn(List.of());
+
+        service.removeAllDeletedPosts();
+
+        verify(outboxService, never()).enqueuePurge(any());
+        verify(postCacheService, never()).evictAll(any());
+    }
+}
@@ -0,0 +1,102 @@
+package com.raul.paste_service.services.schedulerServices;
+
+import com.raul.common.jobs.JobCoordinator;
+import com.raul.paste_service.dto.post.PostExpiryView;
+import com.raul.paste_service.repositories.PostRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SuppressWarnings("unchecked")
+class PostExpirySchedulerTest {
+
+    private final RedisTemplate<String, String> stringRedisTemplate = mock(RedisTemplate.class);
+    private final ZSetOperations<String, String> zSet = mock(ZSetOperations.class);
+    private final PostRepository postRepository = mock(PostRepository.class);
+    private final JobCoordinator jobCoordinator = mock(JobCoordinator.class);
+    private final JobCoordinator.JobRun run = mock(JobCoordinator.JobRun.class);
+    private final LocalDateTime base = LocalDateTime.now().plusMinutes(1);
+    private PostExpiryScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = new PostExpiryScheduler(stringRedisTemplate, postRepository, mock(PostCleanUpService.class), jobCoordinator);
+        ReflectionTestUtils.setField(scheduler, "reloadMillis", 300_000L);
+        ReflectionTestUtils.setField(scheduler, "reloadPageSize", 2);
+
+        when(stringRedisTemplate.opsForZSet()).thenReturn(zSet);
+        when(jobCoordinator.runExclusive(anyString(), any(), any())).thenAnswer(invocation -> {
+            invocation.<Consumer<JobCoordinator.JobRun>>getArgument(2).accept(run);
+            return true;
+        });
+    }
+
+    @Test
+    void reloadsUpcomingDeadlinesPageByPage() {
+        when(postRepository.findExpiringPage(any(), eq(Integer.MAX_VALUE), any(), eq(2)))
+                .thenReturn(List.of(deadline(1, 0), deadline(2, 0)));
+        when(postRepository.findExpiringPage(eq(base), eq(2), any(), eq(2)))
+                .thenReturn(List.of(deadline(3, 1)));
+
+        scheduler.reloadUpcomingExpirations();
+
+        InOrder order = inOrder(run, postRepository);
+        order.verify(run).checkpoint();
+        order.verify(postRepository).findExpiringPage(any(), eq(Integer.MAX_VALUE), any(), eq(2));
+        order.verify(run).checkpoint();
+        order.verify(postRepository).findExpiringPage(eq(base), eq(2), any(), eq(2));
+
+        ArgumentCaptor<Set<ZSetOperations.TypedTuple<String>>> pages = ArgumentCaptor.forClass(Set.class);
+        verify(zSet, times(2)).add(eq(PostExpiryScheduler.EXPIRY_QUEUE), pages.capture());
+        assertThat(pages.getAllValues()).extracting(Set::size).containsExactly(2, 1);
+    }
+
+    @Test
+    void leavesOverdueDeadlinesToTheSweep() {
+        when(postRepository.findExpiringPage(any(), anyInt(), any(), anyInt())).thenReturn(List.of());
+        LocalDateTime before = LocalDateTime.now();
+
+        scheduler.reloadUpcomingExpirations();
+
+        ArgumentCaptor<LocalDateTime> after = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(postRepository).findExpiringPage(after.capture(), eq(Integer.MAX_VALUE), any(), eq(2));
+        assertThat(after.getValue()).isAfterOrEqualTo(before);
+        verify(zSet, times(0)).add(anyString(), anySet());
+    }
+
+    private PostExpiryView deadline(int id, int minutes) {
+        LocalDateTime expiresAt = base.plusMinutes(minutes);
+        return new PostExpiryView() {
+            @Override
+            public Integer getId() {
+                return id;
+            }
+
+            @Override
+            public LocalDateTime getExpiresAt() {
+                return expiresAt;
+            }
+        };
+    }
+}
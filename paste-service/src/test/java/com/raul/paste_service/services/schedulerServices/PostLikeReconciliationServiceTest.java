@@ -0,0 +1,73 @@
+package com.raul.paste_service.services.schedulerServices;
+
+import com.raul.common.jobs.JobCoordinator;
+import com.raul.paste_service.repositories.PostRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.Consumer;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PostLikeReconciliationServiceTest {
+
+    private final PostRepository postRepository = mock(PostRepository.class);
+    private final JobCoordinator jobCoordinator = mock(JobCoordinator.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private final JobCoordinator.JobRun run = mock(JobCoordinator.JobRun.class);
+    private PostLikeReconciliationService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new PostLikeReconciliationService(postRepository, jobCoordinator, transactionTemplate);
+        ReflectionTestUtils.setField(service, "chunkSize", 2);
+
+        when(run.leaseName()).thenReturn("paste.reconcile-likes");
+        when(run.fencingToken()).thenReturn(7L);
+        when(jobCoordinator.runExclusive(anyString(), any(), any())).thenAnswer(invocation -> {
+            invocation.<Consumer<JobCoordinator.JobRun>>getArgument(2).accept(run);
+            return true;
+        });
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<Object>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    void locksEachChunkBeforeRecountingIt() {
+        when(postRepository.findChunkUpperId(0, 2)).thenReturn(2);
+        when(postRepository.findChunkUpperId(2, 2)).thenReturn(4);
+        when(postRepository.findChunkUpperId(4, 2)).thenReturn(null);
+
+        service.reconcileLikesCount();
+
+        InOrder order = inOrder(run, transactionTemplate, postRepository);
+        order.verify(run).checkpoint();
+        order.verify(transactionTemplate).execute(any());
+        order.verify(postRepository).lockRange(0, 2);
+        order.verify(postRepository).reconcileLikesCountInRange(0, 2, "paste.reconcile-likes", 7L);
+        order.verify(run).checkpoint();
+        order.verify(transactionTemplate).execute(any());
+        order.verify(postRepository).lockRange(2, 4);
+        order.verify(postRepository).reconcileLikesCountInRange(2, 4, "paste.reconcile-likes", 7L);
+    }
+
+    @Test
+    void doesNothingWithoutPosts() {
+        when(postRepository.findChunkUpperId(0, 2)).thenReturn(null);
+
+        service.reconcileLikesCount();
+
+        verify(postRepository, never()).lockRange(anyInt(), anyInt());
+    }
+}
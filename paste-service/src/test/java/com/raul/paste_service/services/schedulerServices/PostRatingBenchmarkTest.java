@@ -0,0 +1,71 @@
+package com.raul.paste_service.services.schedulerServices;
+
+import com.raul.paste_service.BenchmarkData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Times the full rating consistency check over a few million posts and records the peak heap it needs.
+ * Needs the database from docker-compose; run with
+ * {@code ./mvnw test -Dtest=PostRatingBenchmarkTest -Dbenchmarks=true [-Dbenchmark.posts=2000000]}.
+ */
+@SpringBootTest(properties = "jobs.cron.min-interval-seconds=0")
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class PostRatingBenchmarkTest {
+
+    private static final long MAX_HEAP_GROWTH_BYTES = 256L * 1024 * 1024;
+
+    @Autowired
+    private PostRatingService postRatingService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private int userId;
+
+    @BeforeEach
+    void seed() {
+        userId = BenchmarkData.createUser(jdbcTemplate);
+        BenchmarkData.createPosts(jdbcTemplate, userId, Integer.getInteger("benchmark.posts", 2_000_000));
+    }
+
+    @AfterEach
+    void cleanUp() {
+        BenchmarkData.deleteUser(jdbcTemplate, userId);
+    }
+
+    @Test
+    void recomputesRatingsWithBoundedHeap() {
+        List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .toList();
+        System.gc();
+        long heapBefore = heapPools.stream().mapToLong(pool -> pool.getUsage().getUsed()).sum();
+        heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+
+        long started = System.nanoTime();
+        postRatingService.updatePostRatings();
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+
+        long heapPeak = heapPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+        Integer posts = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM posts", Integer.class);
+        System.out.printf("rating check over %d posts: %d ms, peak heap %d MB (%d MB before)%n",
+                posts, elapsedMillis, heapPeak >> 20, heapBefore >> 20);
+
+        assertThat(heapPeak - heapBefore).isLessThan(MAX_HEAP_GROWTH_BYTES);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM posts WHERE user_id = ? AND rating = 0", Integer.class, userId)).isZero();
+    }
+}
@@ -0,0 +1,43 @@
+package com.raul.paste_service.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AcceptEncodingUtilsTest {
+
+    @Test
+    void acceptsListedCodings() {
+        assertThat(AcceptEncodingUtils.accepts("gzip", "gzip")).isTrue();
+        assertThat(AcceptEncodingUtils.accepts("deflate, GZIP;q=0.5", "gzip")).isTrue();
+        assertThat(AcceptEncodingUtils.accepts("br;q=1.0, gzip ; q=0.001", "gzip")).isTrue();
+    }
+
+    @Test
+    void rejectsMissingHeadersAndUnlistedCodings() {
+        assertThat(AcceptEncodingUtils.accepts(null, "gzip")).isFalse();
+        assertThat(AcceptEncodingUtils.accepts("", "gzip")).isFalse();
+        assertThat(AcceptEncodingUtils.accepts("identity, br", "gzip")).isFalse();
+    }
+
+    @Test
+    void rejectsCodingsWithZeroQuality() {
+        assertThat(AcceptEncodingUtils.accepts("gzip;q=0", "gzip")).isFalse();
+        assertThat(AcceptEncodingUtils.accepts("gzip; q=0.000", "gzip")).isFalse();
+        assertThat(AcceptEncodingUtils.accepts("br, gzip;Q=0", "gzip")).isFalse();
+    }
+
+    @Test
+    void explicitEntriesWinOverTheWildcard() {
+        assertThat(AcceptEncodingUtils.accepts("*;q=0, gzip", "gzip")).isTrue();
+        assertThat(AcceptEncodingUtils.accepts("gzip;q=0, *", "gzip")).isFalse();
+        assertThat(AcceptEncodingUtils.accepts("*", "gzip")).isTrue();
+        assertThat(AcceptEncodingUtils.accepts("br, *;q=0", "gzip")).isFalse();
+    }
+
+    @Test
+    void treatsMalformedQualitiesAsNotAcceptable() {
+        assertThat(AcceptEncodingUtils.accepts("gzip;q=high", "gzip")).isFalse();
+        assertThat(AcceptEncodingUtils.accepts("gzip;q=2", "gzip")).isFalse();
+    }
+}
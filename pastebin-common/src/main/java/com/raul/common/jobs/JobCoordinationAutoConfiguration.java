@@ -0,0 +1,37 @@
+package com.raul.common.jobs;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Registers the job coordinator in every service that has a database. Services without
+ * a meter registry record job metrics into the global registry, which discards them.
+ */
+@AutoConfiguration(after = JdbcTemplateAutoConfiguration.class)
+@ConditionalOnClass(JdbcTemplate.class)
+@ConditionalOnBean(JdbcTemplate.class)
+public class JobCoordinationAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public JobLeaseRepository jobLeaseRepository(JdbcTemplate jdbcTemplate) {
+        return new JobLeaseRepository(jdbcTemplate);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public JobCoordinator jobCoordinator(JobLeaseRepository jobLeaseRepository,
+                                         ObjectProvider<MeterRegistry> meterRegistry,
+                                         @Value("${jobs.lease.ttl-seconds:120}") long leaseTtlSeconds) {
+        return new JobCoordinator(jobLeaseRepository, meterRegistry.getIfAvailable(() -> Metrics.globalRegistry), leaseTtlSeconds);
+    }
+}
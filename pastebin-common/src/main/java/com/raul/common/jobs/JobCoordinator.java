@@ -0,0 +1,162 @@
+package com.raul.common.jobs;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Runs scheduled jobs on one replica at a time using fenced leases in the job_leases table.
+ * A lease is renewed at every {@link JobRun#checkpoint()}; a replica whose lease was taken
+ * over stops at its next checkpoint instead of racing the new owner. Writes made between
+ * checkpoints are fenced too: guarded statements include {@link #FENCE} and bind the run's
+ * lease name and fencing token, so a node that lost its lease cannot change anything.
+ * Acquisitions and skips are logged at debug level, since frequent pollers such as the
+ * outbox relay go through here on every poll; the scheduled.jobs metrics count them.
+ */
+public class JobCoordinator {
+
+    /**
+     * Condition for guarded SQL writes, true only while the run still holds its lease.
+     * Binds :leaseName and :fencingToken. The lease row is share-locked until the write
+     * commits, so a takeover waits for it instead of overlapping with it.
+     */
+    public static final String FENCE =
+            "EXISTS (SELECT 1 FROM job_leases fence WHERE fence.job_name = :leaseName " +
+            "AND fence.fencing_token = :fencingToken AND fence.lease_until >= clock_timestamp() FOR SHARE)";
+
+    private static final String SUCCEEDED = "SUCCEEDED";
+    private static final String FAILED = "FAILED";
+    private static final String LEASE_LOST = "LEASE_LOST";
+    private static final Marker CUSTOM_LOG_MARKER = MarkerFactory.getMarker("CUSTOM_LOGGER");
+    private static final Logger customLog = LoggerFactory.getLogger("CUSTOM_LOGGER");
+
+    private final JobLeaseRepository jobLeaseRepository;
+    private final MeterRegistry meterRegistry;
+    private final long leaseTtlSeconds;
+    private final String owner = ManagementFactory.getRuntimeMXBean().getName();
+
+    public JobCoordinator(JobLeaseRepository jobLeaseRepository, MeterRegistry meterRegistry, long leaseTtlSeconds) {
+        this.jobLeaseRepository = jobLeaseRepository;
+        this.meterRegistry = meterRegistry;
+        this.leaseTtlSeconds = leaseTtlSeconds;
+    }
+
+    /**
+     * Runs the job on this replica unless another replica holds it or completed it within minInterval.
+     *
+     * @param jobName     Name of the job, unique across services.
+     * @param minInterval Minimum time between two completed runs.
+     * @param task        Job body; should call {@link JobRun#checkpoint()} between units of work.
+     * @return Whether this replica ran the job.
+     */
+    public boolean runExclusive(String jobName, Duration minInterval, Consumer<JobRun> task) {
+        return run(jobName, jobName, minInterval, task);
+    }
+
+    /**
+     * Splits a job into shards leased independently, so idle replicas pick up the shards
+     * the others have not started.
+     *
+     * @param jobName     Name of the job, unique across services.
+     * @param shards      Number of shards the job's key range is split into.
+     * @param minInterval Minimum time between two completed runs of a shard.
+     * @param task        Job body, called with the run and the shard index.
+     */
+    public void runSharded(String jobName, int shards, Duration minInterval, BiConsumer<JobRun, Integer> task) {
+        for (int shard = 0; shard < shards; shard++) {
+            int current = shard;
+            run(jobName, jobName + ":" + shard + "/" + shards, minInterval, run -> task.accept(run, current));
+        }
+    }
+
+    private boolean run(String jobName, String leaseName, Duration minInterval, Consumer<JobRun> task) {
+        Long fencingToken = jobLeaseRepository.acquire(leaseName, owner, leaseTtlSeconds, minInterval.toSeconds());
+        if (fencingToken == null) {
+            customLog.debug(CUSTOM_LOG_MARKER, "Skipping job {}, held or recently completed by another node", leaseName);
+            meterRegistry.counter("scheduled.jobs.skipped", "job", jobName).increment();
+            return false;
+        }
+
+        customLog.debug(CUSTOM_LOG_MARKER, "Node {} acquired job {} with fencing token {}", owner, leaseName, fencingToken);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String status = FAILED;
+        try {
+            task.accept(new JobRun(leaseName, fencingToken));
+            status = SUCCEEDED;
+        } catch (RuntimeException e) {
+            if (!isLeaseLost(e)) {
+                throw e;
+            }
+            status = LEASE_LOST;
+            customLog.warn(CUSTOM_LOG_MARKER, "Node {} lost the lease on job {}, stopping", owner, leaseName);
+        } finally {
+            release(leaseName, fencingToken, status);
+            sample.stop(meterRegistry.timer("scheduled.jobs", "job", jobName, "status", status));
+        }
+        return true;
+    }
+
+    private void release(String leaseName, long fencingToken, String status) {
+        try {
+            jobLeaseRepository.release(leaseName, fencingToken, SUCCEEDED.equals(status), status);
+        } catch (Exception e) {
+            customLog.error(CUSTOM_LOG_MARKER, "Failed to release job {}, it becomes available when the lease lapses", leaseName, e);
+        }
+    }
+
+    private static boolean isLeaseLost(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof JobLeaseLostException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A leased run of a job, identified by its lease name and fencing token.
+     */
+    public final class JobRun {
+
+        private final String leaseName;
+        private final long fencingToken;
+
+        private JobRun(String leaseName, long fencingToken) {
+            this.leaseName = leaseName;
+            this.fencingToken = fencingToken;
+        }
+
+        /**
+         * @return Value to bind to :leaseName in {@link #FENCE}.
+         */
+        public String leaseName() {
+            return leaseName;
+        }
+
+        /**
+         * @return Value to bind to :fencingToken in {@link #FENCE}.
+         */
+        public long fencingToken() {
+            return fencingToken;
+        }
+
+        /**
+         * Extends the lease before the next unit of work.
+         *
+         * @throws JobLeaseLostException if the lease lapsed or another node has taken the job over.
+         */
+        public void checkpoint() {
+            if (jobLeaseRepository.renew(leaseName, fencingToken, leaseTtlSeconds) == 0) {
+                throw new JobLeaseLostException("Lease on job " + leaseName + " lost");
+            }
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.raul.common.jobs;
+
+import java.time.LocalDateTime;
+
+/**
+ * State of one row of job_leases: who holds or last held the job, and how its last run went.
+ */
+public record JobLease(
+        String jobName,
+        String owner,
+        long fencingToken,
+        boolean running,
+        LocalDateTime startedAt,
+        LocalDateTime finishedAt,
+        Long lastDurationMs,
+        String lastStatus
+) {
+}
@@ -0,0 +1,11 @@
+package com.raul.common.jobs;
+
+/**
+ * Thrown at a checkpoint when the lease on a job lapsed or another node has taken the job over.
+ */
+public class JobLeaseLostException extends RuntimeException {
+
+    public JobLeaseLostException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,84 @@
+package com.raul.common.jobs;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Reads and writes the job_leases table shared by every service. All times come from the
+ * database clock, so nodes with skewed clocks still agree on when a lease lapses.
+ */
+public class JobLeaseRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public JobLeaseRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Takes the lease if it has lapsed and the job has not completed within the minimum interval.
+     * Every successful take increments the fencing token.
+     *
+     * @return New fencing token, or null if another node holds the job.
+     */
+    public Long acquire(String jobName, String owner, long ttlSeconds, long minIntervalSeconds) {
+        List<Long> tokens = jdbcTemplate.queryForList(
+                "INSERT INTO job_leases (job_name, owner, fencing_token, lease_until, started_at) " +
+                "VALUES (?, ?, 1, clock_timestamp() + make_interval(secs => ?), clock_timestamp()) " +
+                "ON CONFLICT (job_name) DO UPDATE SET owner = EXCLUDED.owner, " +
+                "fencing_token = job_leases.fencing_token + 1, " +
+                "lease_until = EXCLUDED.lease_until, started_at = EXCLUDED.started_at " +
+                "WHERE job_leases.lease_until < clock_timestamp() " +
+                "AND (job_leases.finished_at IS NULL " +
+                "OR job_leases.finished_at < clock_timestamp() - make_interval(secs => ?)) " +
+                "RETURNING fencing_token",
+                Long.class, jobName, owner, ttlSeconds, minIntervalSeconds);
+        return tokens.isEmpty() ? null : tokens.get(0);
+    }
+
+    public int renew(String jobName, long fencingToken, long ttlSeconds) {
+        return jdbcTemplate.update(
+                "UPDATE job_leases SET lease_until = clock_timestamp() + make_interval(secs => ?) " +
+                "WHERE job_name = ? AND fencing_token = ? AND lease_until >= clock_timestamp()",
+                ttlSeconds, jobName, fencingToken);
+    }
+
+    public int release(String jobName, long fencingToken, boolean succeeded, String status) {
+        return jdbcTemplate.update(
+                "UPDATE job_leases SET lease_until = clock_timestamp(), " +
+                "finished_at = CASE WHEN ? THEN clock_timestamp() ELSE finished_at END, " +
+                "last_duration_ms = CAST(EXTRACT(EPOCH FROM clock_timestamp() - started_at) * 1000 AS BIGINT), " +
+                "last_status = ? " +
+                "WHERE job_name = ? AND fencing_token = ?",
+                succeeded, status, jobName, fencingToken);
+    }
+
+    public List<JobLease> findAll() {
+        return jdbcTemplate.query(
+                "SELECT job_name, owner, fencing_token, lease_until > clock_timestamp() AS running, " +
+                "started_at, finished_at, last_duration_ms, last_status " +
+                "FROM job_leases ORDER BY job_name",
+                JobLeaseRepository::toJobLease);
+    }
+
+    private static JobLease toJobLease(ResultSet rs, int rowNum) throws SQLException {
+        return new JobLease(
+                rs.getString("job_name"),
+                rs.getString("owner"),
+                rs.getLong("fencing_token"),
+                rs.getBoolean("running"),
+                toLocalDateTime(rs.getTimestamp("started_at")),
+                toLocalDateTime(rs.getTimestamp("finished_at")),
+                rs.getObject("last_duration_ms", Long.class),
+                rs.getString("last_status"));
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toLocalDateTime();
+    }
+}
@@ -0,0 +1,61 @@
+package com.raul.common.kafka;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.util.Map;
+
+/**
+ * Reads Kafka payloads encoded either as JSON or as Jackson Smile, told apart by the Smile header.
+ * Type headers and mappings work as with {@link JsonDeserializer}, so producers can switch formats
+ * without coordinating with this service.
+ */
+public class CompactJsonDeserializer implements Deserializer<Object> {
+
+    private static final byte[] SMILE_HEADER = {':', ')', '\n'};
+
+    private final JsonDeserializer<Object> jsonDeserializer = new JsonDeserializer<>();
+    private final JsonDeserializer<Object> smileDeserializer = new JsonDeserializer<>(SmileMapper.builder()
+            .disable(MapperFeature.DEFAULT_VIEW_INCLUSION)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .findAndAddModules()
+            .build());
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        jsonDeserializer.configure(configs, isKey);
+        smileDeserializer.configure(configs, isKey);
+    }
+
+    @Override
+    public Object deserialize(String topic, byte[] data) {
+        return delegateFor(data).deserialize(topic, data);
+    }
+
+    @Override
+    public Object deserialize(String topic, Headers headers, byte[] data) {
+        return delegateFor(data).deserialize(topic, headers, data);
+    }
+
+    @Override
+    public void close() {
+        jsonDeserializer.close();
+        smileDeserializer.close();
+    }
+
+    private JsonDeserializer<Object> delegateFor(byte[] data) {
+        if (data == null || data.length < SMILE_HEADER.length) {
+            return jsonDeserializer;
+        }
+        for (int i = 0; i < SMILE_HEADER.length; i++) {
+            if (data[i] != SMILE_HEADER[i]) {
+                return jsonDeserializer;
+            }
+        }
+        return smileDeserializer;
+    }
+}
@@ -0,0 +1,79 @@
+package com.raul.search_service.config;
+
+import com.raul.common.kafka.CompactJsonDeserializer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.util.backoff.ExponentialBackOff;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Configuration
+public class KafkaPostIndexConsumerConfig {
+
+    @Value("${spring.kafka.consumer.group-id}")
+    private String groupId;
+
+    @Value("${kafka.post-index.retry.max-elapsed-millis:60000}")
+    private long retryMaxElapsedMillis;
+
+    @Bean
+    public ConsumerFactory<String, Object> postIndexConsumerFactory() {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, "kafka:9092");
+        configProps.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
+        configProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        configProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, CompactJsonDeserializer.class);
+
+        configProps.put(JsonDeserializer.TYPE_MAPPINGS,
+                "postIndexDto:com.raul.search_service.dto.PostIndexDto," +
+                "postIndexPatchDto:com.raul.search_service.dto.PostIndexPatchDto");
+        configProps.put(JsonDeserializer.TRUSTED_PACKAGES, "com.raul.search_service.dto");
+
+        return new DefaultKafkaConsumerFactory<>(configProps);
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, Object> postIndexListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(postIndexConsumerFactory());
+        factory.setCommonErrorHandler(postIndexErrorHandler());
+        return factory;
+    }
+
+    /**
+     * Retries a failed index event with exponential backoff, holding back the rest of its partition
+     * so later events of the post are not applied before it, then moves it to post_index_topic_v2.DLT.
+     */
+    @Bean
+    public DefaultErrorHandler postIndexErrorHandler() {
+        ExponentialBackOff backOff = new ExponentialBackOff(500, 2);
+        backOff.setMaxInterval(10_000);
+        backOff.setMaxElapsedTime(retryMaxElapsedMillis);
+        return new DefaultErrorHandler(new DeadLetterPublishingRecoverer(postIndexDeadLetterTemplate()), backOff);
+    }
+
+    @Bean
+    public KafkaTemplate<String, Object> postIndexDeadLetterTemplate() {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, "kafka:9092");
+        configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+
+        return new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(configProps));
+    }
+}
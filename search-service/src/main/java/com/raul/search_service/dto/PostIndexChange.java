@@ -0,0 +1,11 @@
+package com.raul.search_service.dto;
+
+/**
+ * Kinds of post changes carried by a {@link PostIndexPatchDto}.
+ */
+public enum PostIndexChange {
+    FULL,
+    STATUS,
+    COUNTERS,
+    RATING
+}
@@ -4,6 +4,7 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 public record PostIndexDto(
+        Integer schemaVersion,
         Integer id,
         String title,
         String slug,
@@ -0,0 +1,20 @@
+package com.raul.search_service.dto;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * Partial update of an indexed post. Only the fields of the listed changes are meaningful.
+ */
+public record PostIndexPatchDto(
+        Integer schemaVersion,
+        Integer id,
+        Set<PostIndexChange> changes,
+        Boolean isDeleted,
+        LocalDateTime expiresAt,
+        LocalDateTime updatedAt,
+        Integer likesCount,
+        Integer viewsCount,
+        Integer rating
+) {
+}
@@ -0,0 +1,8 @@
+package com.raul.search_service.dto;
+
+import java.util.List;
+
+public record PostPurgeDto(
+        List<Integer> postIds
+) {
+}
@@ -0,0 +1,55 @@
+package com.raul.search_service.services;
+
+import com.raul.search_service.dto.PostIndexDto;
+import com.raul.search_service.dto.PostIndexPatchDto;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
+import org.springframework.kafka.annotation.KafkaHandler;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Service;
+
+/**
+ * Consumes the "post_index_topic_v2" Kafka topic, which carries full documents and partial updates of posts.
+ * Events with a newer schema than this service understands are skipped rather than misapplied.
+ */
+@Service
+@RequiredArgsConstructor
+@KafkaListener(topics = "post_index_topic_v2", groupId = "${spring.kafka.consumer.group-id}",
+        containerFactory = "postIndexListenerContainerFactory")
+public class PostIndexListener {
+
+    /**
+     * Highest post index event schema version this service can apply.
+     */
+    static final int SUPPORTED_SCHEMA_VERSION = 2;
+
+    private final PostIndexService postIndexService;
+    private final static Marker CUSTOM_LOG_MARKER = MarkerFactory.getMarker("CUSTOM_LOGGER");
+    private static final Logger customLog = LoggerFactory.getLogger("CUSTOM_LOGGER");
+
+    @KafkaHandler
+    public void onPostIndex(PostIndexDto postIndexDto) {
+        if (isSupported(postIndexDto.schemaVersion(), postIndexDto.id())) {
+            postIndexService.addToIndex(postIndexDto);
+        }
+    }
+
+    @KafkaHandler
+    public void onPostIndexPatch(PostIndexPatchDto postIndexPatchDto) {
+        if (isSupported(postIndexPatchDto.schemaVersion(), postIndexPatchDto.id())) {
+            postIndexService.applyPatch(postIndexPatchDto);
+        }
+    }
+
+    private boolean isSupported(Integer schemaVersion, Integer postId) {
+        if (schemaVersion != null && schemaVersion > SUPPORTED_SCHEMA_VERSION) {
+            customLog.warn(CUSTOM_LOG_MARKER, "Skipping index event for post {} with unsupported schema version {}",
+                    postId, schemaVersion);
+            return false;
+        }
+        return true;
+    }
+}
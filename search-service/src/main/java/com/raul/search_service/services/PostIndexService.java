@@ -1,6 +1,9 @@
 package com.raul.search_service.services;
 
+import com.raul.search_service.dto.PostIndexChange;
 import com.raul.search_service.dto.PostIndexDto;
+import com.raul.search_service.dto.PostIndexPatchDto;
+import com.raul.search_service.dto.PostPurgeDto;
 import com.raul.search_service.dto.PostResponseDto;
 import com.raul.search_service.models.PostDocument;
 import com.raul.search_service.reposiroties.PostSearchRepository;
@@ -12,25 +15,34 @@ import org.slf4j.Marker;
 import org.slf4j.MarkerFactory;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.document.Document;
+import org.springframework.data.elasticsearch.core.query.UpdateQuery;
 import org.springframework.http.ResponseEntity;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
 public class PostIndexService {
+    private static final DateTimeFormatter INDEX_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+
     private final PostSearchRepository repository;
+    private final ElasticsearchOperations elasticsearchOperations;
     private final static Marker CUSTOM_LOG_MARKER = MarkerFactory.getMarker("CUSTOM_LOGGER");
     private static final Logger customLog = LoggerFactory.getLogger("CUSTOM_LOGGER");
 
     /**
-     * Listens for messages from the "post_index_topic" Kafka topic and indexes posts in Elasticsearch.
+     * Indexes the full document of a post, replacing any previous version.
      *
      * @param postIndexDto Data transfer object containing post information to be indexed.
      */
-    @KafkaListener(topics = "post_index_topic", groupId = "${spring.kafka.consumer.group-id}")
     public void addToIndex(PostIndexDto postIndexDto) {
         customLog.info(CUSTOM_LOG_MARKER, "Received post with Title: {}", postIndexDto.title());
 
@@ -39,6 +51,51 @@ public class PostIndexService {
         customLog.info(CUSTOM_LOG_MARKER, "Post with Title: {} successfully added to index", postIndexDto.title());
     }
 
+    /**
+     * Applies a partial update to an indexed post, writing only the fields of the changes it carries.
+     * Failures propagate to the listener's error handler, which retries and then dead-letters the event.
+     *
+     * @param patchDto Data transfer object containing the changed fields of the post.
+     */
+    public void applyPatch(PostIndexPatchDto patchDto) {
+        Map<String, Object> fields = new HashMap<>();
+        if (patchDto.changes().contains(PostIndexChange.STATUS)) {
+            fields.put("isDeleted", patchDto.isDeleted());
+            fields.put("expiresAt", formatDate(patchDto.expiresAt()));
+            fields.put("updatedAt", formatDate(patchDto.updatedAt()));
+        }
+        if (patchDto.changes().contains(PostIndexChange.COUNTERS)) {
+            fields.put("likesCount", patchDto.likesCount());
+            fields.put("viewsCount", patchDto.viewsCount());
+        }
+        if (patchDto.changes().contains(PostIndexChange.RATING)) {
+            fields.put("rating", patchDto.rating());
+        }
+        if (fields.isEmpty()) {
+            return;
+        }
+
+        elasticsearchOperations.update(UpdateQuery.builder(patchDto.id().toString())
+                .withDocument(Document.from(fields))
+                .build(), elasticsearchOperations.getIndexCoordinatesFor(PostDocument.class));
+        customLog.info(CUSTOM_LOG_MARKER, "Post with ID: {} updated in index ({})", patchDto.id(), patchDto.changes());
+    }
+
+    /**
+     * Listens for messages from the "post_purge_topic_v2" Kafka topic and removes purged posts from the index.
+     *
+     * @param postPurgeDto Data transfer object containing the IDs of the purged posts.
+     */
+    @KafkaListener(topics = "post_purge_topic_v2", groupId = "${spring.kafka.consumer.group-id}",
+            containerFactory = "postPurgeListenerContainerFactory")
+    public void removeFromIndex(PostPurgeDto postPurgeDto) {
+        customLog.info(CUSTOM_LOG_MARKER, "Received {} purged posts", postPurgeDto.postIds().size());
+
+        repository.deleteAllById(postPurgeDto.postIds().stream().map(String::valueOf).toList());
+
+        customLog.info(CUSTOM_LOG_MARKER, "{} purged posts removed from index", postPurgeDto.postIds().size());
+    }
+
     /**
      * Searches for posts in the Elasticsearch index based on a query string.
      *
@@ -63,6 +120,10 @@ public class PostIndexService {
         return ResponseEntity.ok(responseDtos);
     }
 
+    private String formatDate(LocalDateTime date) {
+        return date == null ? null : date.format(INDEX_DATE_FORMAT);
+    }
+
     private PostDocument convertToPostDocument(PostIndexDto postIndexDto) {
         return PostDocument.builder()
                 .id(postIndexDto.id().toString())
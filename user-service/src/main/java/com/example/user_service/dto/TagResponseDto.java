@@ -1,6 +0,0 @@
-package com.example.user_service.dto;
-
-public record TagResponseDto(
-        String tag
-) {
-}
@@ -1,6 +1,7 @@
 package com.example.user_service.repositories;
 
 import com.example.user_service.models.User;
+import com.raul.common.jobs.JobCoordinator;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -9,7 +10,6 @@ import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -20,8 +20,16 @@ public interface UserRepository extends JpaRepository<User, Integer> {
     @Query("UPDATE User u SET u.isDeleted = true, u.deletedAt = :deletedAt WHERE u.id = :userId")
     void markAsDeletedById(@Param("userId") Integer userId, @Param("deletedAt") LocalDateTime deletedAt);
 
-    @Query("SELECT u FROM User u WHERE u.isDeleted = true AND u.deletedAt <= :threshold")
-    List<User> findUsersDeletedBefore(@Param("threshold") LocalDateTime threshold);
+    /**
+     * Removes users deleted before the threshold, provided the purge job still holds its lease.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM users WHERE is_deleted = TRUE AND deleted_at <= :threshold AND " + JobCoordinator.FENCE,
+            nativeQuery = true)
+    int deleteUsersDeletedBefore(@Param("threshold") LocalDateTime threshold,
+                                 @Param("leaseName") String leaseName,
+                                 @Param("fencingToken") long fencingToken);
 
     Optional<User> findByEmail(String email);
 }